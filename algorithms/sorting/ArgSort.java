@@ -0,0 +1,130 @@
+package algorithms.sorting;
+
+public class ArgSort {
+    /*
+        Argsort (key-index sort)
+
+        Instead of moving the keys, returns the permutation that sorts them: permutation[i] is the index of the key that
+        belongs to position i of the sorted order, so keys[permutation[0]] <= keys[permutation[1]] <= ...
+        This is how an array of records is sorted by an int key without a Comparator: sort the keys once, then move the
+        records once (reorder), with no comparisons on the records and no boxing.
+
+        - mergeSort and quickSort pack every key and its index into one long: the key in the high 32 bits and the index in
+          the low 32 bits. Comparing the longs compares the keys first and the indexes second, so the long[] is sorted
+          with the long specializations of MergeSort and QuickSort, and equal keys always keep their input order - even
+          with the unstable quicksort.
+        - countingSort keeps the keys and the indexes as two separate arrays: it counts the keys, computes the positions
+          with a prefix sum and writes the index of every key to its position, in input order (stable). It falls back to
+          mergeSort when the range of the keys is too big (see CountingSort.boundedSort) - bigger than
+          maxRangePerElement * N, the calibrated cutoff of SortTuning.
+
+        * Time Complexity  O(N logN) (mergeSort, quickSort); O(N + R) (countingSort)
+        * Space Complexity O(N) - N longs for the packed keys (plus N for the merge sort buffer)
+        * Stable (all versions)
+    */
+    private static final int maxRangePerElement = SortTuning.countingRangePerElement;
+
+    public static int[] mergeSort(int[] keys) {
+        int[] permutation = new int[keys.length];
+        mergeSort(keys, permutation);
+        return permutation;
+    }
+
+    public static void mergeSort(int[] keys, int[] permutation) {
+        checkPermutation(keys, permutation);
+
+        long[] packed = pack(keys);
+        MergeSort.bufferedSort(packed);
+        unpack(packed, permutation);
+    }
+
+    public static int[] quickSort(int[] keys) {
+        int[] permutation = new int[keys.length];
+        quickSort(keys, permutation);
+        return permutation;
+    }
+
+    public static void quickSort(int[] keys, int[] permutation) {
+        checkPermutation(keys, permutation);
+
+        long[] packed = pack(keys);
+        QuickSort.introSort(packed);
+        unpack(packed, permutation);
+    }
+
+    public static int[] countingSort(int[] keys) {
+        int[] permutation = new int[keys.length];
+        countingSort(keys, permutation);
+        return permutation;
+    }
+
+    public static void countingSort(int[] keys, int[] permutation) {
+        checkPermutation(keys, permutation);
+        if (keys.length == 0) {
+            return;
+        }
+
+        // min and max in one scan
+        int min = keys[0];
+        int max = keys[0];
+        for (int key : keys) {
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+
+        long range = (long) max - min + 1;
+        if (range > (long) maxRangePerElement * keys.length) {
+            mergeSort(keys, permutation);
+            return;
+        }
+
+        // Counts the number of times each key occurs (shifted by one: count[k + 1] is the number of keys k)
+        int[] count = new int[(int) range + 1];
+        for (int key : keys) {
+            ++count[key - min + 1];
+        }
+
+        // Prefix sum - count[k] is the first position of key k in the sorted order
+        for (int i = 1; i < count.length; ++i) {
+            count[i] += count[i - 1];
+        }
+
+        // Write the indexes to their positions, in input order (stable)
+        for (int i = 0; i < keys.length; ++i) {
+            permutation[count[keys[i] - min]++] = i;
+        }
+    }
+
+    // Moves the records to their sorted positions: afterwards records[i] is the former records[permutation[i]].
+    public static <T> void reorder(T[] records, int[] permutation) {
+        if (records.length != permutation.length) {
+            throw new IllegalArgumentException("Permutation length " + permutation.length + " does not match " + records.length);
+        }
+
+        T[] original = records.clone();
+        for (int i = 0; i < records.length; ++i) {
+            records[i] = original[permutation[i]];
+        }
+    }
+
+    // Key in the high 32 bits, index in the low 32 bits (the index is never negative)
+    private static long[] pack(int[] keys) {
+        long[] packed = new long[keys.length];
+        for (int i = 0; i < keys.length; ++i) {
+            packed[i] = ((long) keys[i] << 32) | i;
+        }
+        return packed;
+    }
+
+    private static void unpack(long[] packed, int[] permutation) {
+        for (int i = 0; i < packed.length; ++i) {
+            permutation[i] = (int) packed[i];
+        }
+    }
+
+    private static void checkPermutation(int[] keys, int[] permutation) {
+        if (permutation.length != keys.length) {
+            throw new IllegalArgumentException("Permutation length " + permutation.length + " does not match " + keys.length);
+        }
+    }
+}
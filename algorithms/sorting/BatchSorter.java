@@ -0,0 +1,195 @@
+package algorithms.sorting;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+
+public final class BatchSorter {
+    /*
+        Batch sorting of many small independent arrays
+
+        Arrays of 10 - 1,000 elements sort in a few microseconds - dispatching every one of them as its own task (or from
+        its own request thread) costs more than the sort itself. BatchSorter takes a whole batch at once:
+        - as a List<int[]> (every array is sorted in place), or
+        - packed: all arrays stored one after the other in one data array, array i is data[offsets[i], offsets[i+1]).
+          (offsets has one more entry than there are arrays.) This layout avoids one object per array and keeps the
+          arrays next to each other in memory.
+
+        The arrays of a batch are grouped into work units of about unitElements consecutive elements (128 KB - a unit fits
+        into the L2 cache of a core). A unit is the smallest task: its arrays are sorted one after the other by one
+        thread, with QuickSort.introSort (insertion sort for arrays below the hybrid threshold, otherwise the hybrid
+        quicksort, which is not quadratic on presorted arrays). An array larger than a unit is a unit of its own.
+
+        The units run on a work-stealing ForkJoinPool (the common pool by default): a batch is one RecursiveAction that
+        splits its units in halves, so idle workers steal the other halves - the throughput scales with the cores, and
+        one large batch does not wait behind one thread. (Java 17 has no virtual threads; they would not help either -
+        sorting never blocks, so it cannot use more threads than cores.)
+
+        - Per-batch completion: submit returns a CompletableFuture that completes (with the sorted arrays) when the whole
+          batch is sorted, or exceptionally if sorting failed.
+        - Backpressure: at most maxPendingElements elements are sorted or waiting to be sorted at any time. submit blocks
+          the caller until there is room for its batch (a batch larger than the limit waits until nothing else is
+          pending), so producers that are faster than the pool slow down instead of filling the heap.
+          The waiting batches get their room in the order they were submitted (a fair Semaphore). Otherwise a stream of
+          small batches would always find enough free room and starve a large batch that waits for most of the limit;
+          the price is that small batches queue behind a large one instead of overtaking it.
+          submit should be called from the request threads, not from the workers of the pool (a blocked worker would be
+          one worker less for the batches it waits for).
+    */
+    private static final int unitElements = 1 << 15;
+    private static final int defaultMaxPendingElements = 1 << 24;
+
+    private final ForkJoinPool pool;
+    private final int maxPendingElements;
+    private final Semaphore pendingPermits;
+
+    public BatchSorter() {
+        this(ForkJoinPool.commonPool(), defaultMaxPendingElements);
+    }
+
+    public BatchSorter(ForkJoinPool pool, int maxPendingElements) {
+        if (maxPendingElements < 1) {
+            throw new IllegalArgumentException("maxPendingElements must be positive: " + maxPendingElements);
+        }
+        this.pool = pool;
+        this.maxPendingElements = maxPendingElements;
+        this.pendingPermits = new Semaphore(maxPendingElements, true);
+    }
+
+    // Sorts every array of the list in place. The future completes with the same list.
+    public CompletableFuture<List<int[]>> submit(List<int[]> arrays) throws InterruptedException {
+        int[][] batch = arrays.toArray(new int[0][]);
+        long elements = 0;
+        for (int i = 0; i < batch.length; ++i) {
+            if (batch[i] == null) {
+                throw new IllegalArgumentException("Array " + i + " of the batch is null");
+            }
+            elements += batch[i].length;
+        }
+
+        return submit(batch, null, null, elements, arrays);
+    }
+
+    // Sorts every array data[offsets[i], offsets[i+1]) in place. The future completes with data.
+    public CompletableFuture<int[]> submit(int[] offsets, int[] data) throws InterruptedException {
+        if (offsets.length == 0 || offsets[0] < 0 || offsets[offsets.length - 1] > data.length) {
+            throw new IllegalArgumentException("Offsets must start at >= 0 and end at <= " + data.length);
+        }
+        for (int i = 1; i < offsets.length; ++i) {
+            if (offsets[i] < offsets[i - 1]) {
+                throw new IllegalArgumentException("Offsets must not decrease: offsets[" + i + "] = " + offsets[i]
+                        + " < " + offsets[i - 1]);
+            }
+        }
+
+        long elements = offsets[offsets.length - 1] - offsets[0];
+        return submit(null, offsets, data, elements, data);
+    }
+
+    // Elements that are being sorted or are waiting to be sorted
+    public int pendingElements() {
+        return maxPendingElements - pendingPermits.availablePermits();
+    }
+
+    private <T> CompletableFuture<T> submit(int[][] arrays, int[] offsets, int[] data, long elements, T result)
+            throws InterruptedException {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        int[] unitStarts = unitStarts(arrays, offsets);
+        int units = unitStarts.length - 1;
+        if (units == 0) {
+            future.complete(result);
+            return future;
+        }
+
+        // Backpressure: wait until the batch fits into the limit
+        int permits = (int) Math.max(1, Math.min(elements, maxPendingElements));
+        pendingPermits.acquire(permits);
+
+        UnitsTask root = new UnitsTask(arrays, offsets, data, unitStarts, 0, units);
+        try {
+            pool.execute(() -> {
+                try {
+                    root.invoke();
+                } catch (Throwable e) {
+                    pendingPermits.release(permits);
+                    future.completeExceptionally(e);
+                    return;
+                }
+                pendingPermits.release(permits);
+                future.complete(result);
+            });
+        } catch (RuntimeException e) {
+            // The pool rejected the batch (e.g. it is shut down)
+            pendingPermits.release(permits);
+            throw e;
+        }
+        return future;
+    }
+
+    // Groups consecutive arrays into units of about unitElements elements: unit u is arrays [unitStarts[u], unitStarts[u+1])
+    private static int[] unitStarts(int[][] arrays, int[] offsets) {
+        int count = arrays != null ? arrays.length : offsets.length - 1;
+        int[] starts = new int[count + 1];
+        int units = 0;
+        long unitSize = 0;
+
+        for (int i = 0; i < count; ++i) {
+            long length = arrays != null ? arrays[i].length : offsets[i + 1] - offsets[i];
+            if (unitSize > 0 && unitSize + length > unitElements) {
+                starts[++units] = i;
+                unitSize = 0;
+            }
+            unitSize += length;
+        }
+        if (count > 0) {
+            starts[++units] = count;
+        }
+        return Arrays.copyOf(starts, units + 1);
+    }
+
+    // Sorts the arrays of units [fromUnit, toUnit), splitting the units in halves between the workers
+    private static final class UnitsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] arrays;
+        private final int[] offsets;
+        private final int[] data;
+        private final int[] unitStarts;
+        private final int fromUnit;
+        private final int toUnit;
+
+        UnitsTask(int[][] arrays, int[] offsets, int[] data, int[] unitStarts, int fromUnit, int toUnit) {
+            this.arrays = arrays;
+            this.offsets = offsets;
+            this.data = data;
+            this.unitStarts = unitStarts;
+            this.fromUnit = fromUnit;
+            this.toUnit = toUnit;
+        }
+
+        @Override
+        protected void compute() {
+            if (toUnit - fromUnit == 1) {
+                sortUnit(fromUnit);
+                return;
+            }
+
+            int middleUnit = (fromUnit + toUnit) >>> 1;
+            invokeAll(new UnitsTask(arrays, offsets, data, unitStarts, fromUnit, middleUnit),
+                    new UnitsTask(arrays, offsets, data, unitStarts, middleUnit, toUnit));
+        }
+
+        private void sortUnit(int unit) {
+            for (int i = unitStarts[unit]; i < unitStarts[unit + 1]; ++i) {
+                if (arrays != null) {
+                    QuickSort.introSort(arrays[i]);
+                } else {
+                    QuickSort.introSort(data, offsets[i], offsets[i + 1] - 1);
+                }
+            }
+        }
+    }
+}
@@ -44,7 +44,7 @@ public class BubbleSort {
             for (int j = 0; j < array.length - 1 - i; ++j) {
 
                 // Swap if this pair is out of order
-                if (array[j] > array[j + 1]) {
+                if (SortMetrics.compared(array[j] > array[j + 1])) {
                     swap(array, j, j + 1);
                 }
             }
@@ -54,6 +54,12 @@ public class BubbleSort {
 
     // We can optimize by stopping the algorithm if the inner loop didn't cause any swap.
     public static void improvedSort(int[] array) {
+        // An already sorted array is recognized by one vectorized scan, instead of a whole pass of comparisons and swaps
+        // (only with SIMD support - the scalar first pass below finds it out as well).
+        if (VectorSupport.enabled && VectorScans.ascendingRunEnd(array, 0, array.length) >= array.length) {
+            return;
+        }
+
         // After each iteration we keep track whether any elements were swapped.
         boolean swapped;
 
@@ -63,7 +69,7 @@ public class BubbleSort {
             // Last i elements are already sorted
             for (int j = 0; j < array.length - 1 - i; ++j) {
                 // Swap if this pair is out of order
-                if (array[j] > array[j + 1]) {
+                if (SortMetrics.compared(array[j] > array[j + 1])) {
                     swap(array, j, j + 1);
                     swapped = true;
                 }
@@ -98,26 +104,30 @@ public class BubbleSort {
         if (size <= 1) {
             return;
         }
+        SortMetrics.enter();
 
         // One pass of bubble sort. After this pass, the largest element is moved (bubbled) to the end.
         boolean swapped = false;
         for (int j = 0; j < size - 1; ++j) {
-            if (array[j] > array[j + 1]) {
+            if (SortMetrics.compared(array[j] > array[j + 1])) {
                 swap(array, j, j + 1);
                 swapped = true;
             }
         }
 
         if (!swapped) {
+            SortMetrics.exit();
             return;
         }
 
         // Recursively call the function for the rest of the array except last element
         recurse(array, size - 1);
+        SortMetrics.exit();
     }
 
 
     private static void swap(int[] array, int firstIndex, int secondIndex) {
+        SortMetrics.swapped();
         int temp = array[firstIndex];
         array[firstIndex] = array[secondIndex];
         array[secondIndex] = temp;
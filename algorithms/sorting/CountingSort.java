@@ -1,6 +1,8 @@
 package algorithms.sorting;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 public class CountingSort {
     /*
@@ -20,17 +22,26 @@ public class CountingSort {
 
     // Stable version
     public static void sort(int[] array) {
+        if (array.length < 2) {
+            return;
+        }
+
         // Sorts negative and positive numbers
-        int rangeFrom = Arrays.stream(array).min().getAsInt();
-        int rangeTo = Arrays.stream(array).max().getAsInt();
-        int range = rangeTo - rangeFrom + 1;
+        long[] minMax = minMax(array, 0, array.length);
+        int rangeFrom = (int) minMax[0];
+        int range = checkedRange(minMax);
+
+        countingSort(array, rangeFrom, range);
+    }
 
+    private static void countingSort(int[] array, int rangeFrom, int range) {
         // Auxiliary array used first to store the numbers of unique elements, and then (after the second loop) to store
         // the positions where each unique element should be placed.
         int[] count = new int[range];
-        Arrays.fill(count, 0);
 
         int[] inputArray = Arrays.copyOf(array, array.length);
+        SortMetrics.allocated(4L * (count.length + inputArray.length));
+        SortMetrics.moved(2L * inputArray.length);
 
         // Counts the number of times each unique element occurs within the input array.
         for (int element : inputArray) {
@@ -53,15 +64,20 @@ public class CountingSort {
 
     // Not stable
     public static void simpleSort(int[] array) {
+        if (array.length < 2) {
+            return;
+        }
+
         // Sorts negative and positive numbers
-        int rangeFrom = Arrays.stream(array).min().getAsInt();
-        int rangeTo = Arrays.stream(array).max().getAsInt();
-        int range = rangeTo - rangeFrom + 1;
+        long[] minMax = minMax(array, 0, array.length);
+        int rangeFrom = (int) minMax[0];
+        int range = checkedRange(minMax);
 
         int[] count = new int[range];
-        Arrays.fill(count, 0);
 
         int[] inputArray = Arrays.copyOf(array, array.length);
+        SortMetrics.allocated(4L * (count.length + inputArray.length));
+        SortMetrics.moved(2L * inputArray.length);
 
         // Counts the number of occurs within the input array.
         for (int element : inputArray) {
@@ -81,4 +97,249 @@ public class CountingSort {
         }
     }
 
+
+    /*
+        Counting sort with bounded memory
+
+        The count array has one entry for every value in [min ... max], so a single outlier (e.g. one Integer.MAX_VALUE
+        in an array of small numbers) makes it as big as 16 GB. This version checks the range before allocating anything:
+        - Counting sort (stable) is used only if the count array and the copy of the input fit into memoryBudget bytes
+          and the range is not significantly greater than N (at most maxRangePerElement * N).
+        - Otherwise radix sort is used - it needs O(N) auxiliary space for any range.
+        - If even the O(N) auxiliary array of radix sort does not fit into the budget, the in-place pdqsort is used.
+
+        min and max are found in one scan, and the range is computed in long arithmetic: for an input that contains both
+        Integer.MIN_VALUE and Integer.MAX_VALUE the range is 2^32, which overflows int.
+    */
+    static final long defaultMemoryBudget = 64L << 20;
+    private static final int maxRangePerElement = SortTuning.countingRangePerElement;
+    private static final long maxCountLength = Integer.MAX_VALUE - 8;
+
+    public static void boundedSort(int[] array) {
+        boundedSort(array, defaultMemoryBudget);
+    }
+
+    public static void boundedSort(int[] array, long memoryBudget) {
+        if (array.length < 2) {
+            return;
+        }
+
+        long[] minMax = minMax(array, 0, array.length);
+        long range = minMax[1] - minMax[0] + 1;
+        long radixBytes = (long) Integer.BYTES * array.length;
+
+        if (countingFits(range, array.length, (long) Integer.BYTES * array.length, memoryBudget)) {
+            countingSort(array, (int) minMax[0], (int) range);
+        } else if (radixBytes <= memoryBudget) {
+            RadixSort.sort(array);
+        } else {
+            QuickSort.pdqSort(array);
+        }
+    }
+
+    /*
+        Parallel Counting sort
+
+        Every phase of the counting sort is split between the workers of the common ForkJoinPool:
+        1) Every worker finds min and max of its own chunk of the array, and copies the chunk into the input copy.
+        2) Every worker counts the elements of its own chunk into a private count array - no shared counters, no atomics.
+        3) Prefix sum over all private count arrays, in the order (value, chunk): the elements with value k of chunk c are
+           placed after all smaller elements and after the elements with value k of chunks 0 ... c-1. The value range is
+           split between the workers; each slice is summed on its own, then shifted by the total of the slices before it.
+        4) Every worker moves the elements of its own chunk, in order, to the positions computed in step 3. The positions
+           of different chunks do not overlap, and elements with equal values keep their order - the result is stable.
+
+        The private count arrays need chunks * R memory. If that is more than maxRangePerElement * N, boundedSort is used.
+        Arrays smaller than parallelThreshold (the calibrated cutoff of SortTuning, the same one Sorter uses) are sorted by
+        boundedSort as well. Every chunk has at least minChunkElements elements - a fixed granularity, it only has to make
+        a chunk much bigger than the cost of its task.
+
+        * Time Complexity  O(N / P + R)
+        * Space Complexity O(N + P * R)
+        * Stable algorithm
+    */
+    private static final int parallelThreshold = SortTuning.parallelThreshold;
+    private static final int minChunkElements = 1 << 16;
+
+    public static void parallelSort(int[] array) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int chunks = Math.min(parallelism, array.length / minChunkElements);
+
+        if (array.length < parallelThreshold || chunks <= 1) {
+            boundedSort(array);
+            return;
+        }
+
+        int[] chunkStarts = new int[chunks + 1];
+        for (int c = 0; c <= chunks; ++c) {
+            chunkStarts[c] = (int) ((long) array.length * c / chunks);
+        }
+
+        // 1) min and max of every chunk, and copy of the input
+        int[] inputArray = new int[array.length];
+        long[][] chunkMinMax = new long[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = chunkStarts[c];
+            int to = chunkStarts[c + 1];
+            System.arraycopy(array, from, inputArray, from, to - from);
+            chunkMinMax[c] = minMax(array, from, to);
+        });
+
+        long min = chunkMinMax[0][0];
+        long max = chunkMinMax[0][1];
+        for (long[] minMax : chunkMinMax) {
+            min = Math.min(min, minMax[0]);
+            max = Math.max(max, minMax[1]);
+        }
+        long range = max - min + 1;
+
+        if ((long) chunks * range > (long) maxRangePerElement * array.length) {
+            boundedSort(array);
+            return;
+        }
+
+        int rangeFrom = (int) min;
+        int rangeSize = (int) range;
+
+        // 2) Private count array of every chunk
+        int[][] count = new int[chunks][rangeSize];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] chunkCount = count[c];
+            for (int i = chunkStarts[c]; i < chunkStarts[c + 1]; ++i) {
+                ++chunkCount[inputArray[i] - rangeFrom];
+            }
+        });
+
+        // 3) Prefix sum in (value, chunk) order. First every slice of values is summed on its own...
+        int slices = Math.min(parallelism, rangeSize);
+        int[] sliceStarts = new int[slices + 1];
+        for (int s = 0; s <= slices; ++s) {
+            sliceStarts[s] = (int) ((long) rangeSize * s / slices);
+        }
+
+        int[] sliceTotals = new int[slices];
+        IntStream.range(0, slices).parallel().forEach(s -> {
+            int sum = 0;
+            for (int value = sliceStarts[s]; value < sliceStarts[s + 1]; ++value) {
+                for (int c = 0; c < chunks; ++c) {
+                    int elements = count[c][value];
+                    count[c][value] = sum;
+                    sum += elements;
+                }
+            }
+            sliceTotals[s] = sum;
+        });
+
+        // ...then shifted by the number of elements in the slices before it
+        int[] sliceOffsets = new int[slices];
+        for (int s = 1; s < slices; ++s) {
+            sliceOffsets[s] = sliceOffsets[s - 1] + sliceTotals[s - 1];
+        }
+        IntStream.range(1, slices).parallel().forEach(s -> {
+            int offset = sliceOffsets[s];
+            for (int value = sliceStarts[s]; value < sliceStarts[s + 1]; ++value) {
+                for (int c = 0; c < chunks; ++c) {
+                    count[c][value] += offset;
+                }
+            }
+        });
+
+        // 4) Every chunk moves its elements to their sorted positions, in input order
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] position = count[c];
+            for (int i = chunkStarts[c]; i < chunkStarts[c + 1]; ++i) {
+                int element = inputArray[i];
+                array[position[element - rangeFrom]++] = element;
+            }
+        });
+    }
+
+    /*
+        Counting sort for byte[], short[] and char[]
+
+        The range of these types is at most 65536 values, which is never "significantly greater" than the sizes that are
+        worth sorting, so they always use counting sort: no min/max scan and no copy of the input are needed - the count
+        array covers the whole range of the type, and every value is written count[value] times.
+    */
+    public static void sort(byte[] array) {
+        int[] count = new int[1 << Byte.SIZE];
+        for (byte element : array) {
+            ++count[element - Byte.MIN_VALUE];
+        }
+
+        int index = 0;
+        for (int i = 0; i < count.length; ++i) {
+            for (int c = count[i]; c > 0; --c) {
+                array[index++] = (byte) (i + Byte.MIN_VALUE);
+            }
+        }
+    }
+
+    public static void sort(short[] array) {
+        int[] count = new int[1 << Short.SIZE];
+        for (short element : array) {
+            ++count[element - Short.MIN_VALUE];
+        }
+
+        int index = 0;
+        for (int i = 0; i < count.length; ++i) {
+            for (int c = count[i]; c > 0; --c) {
+                array[index++] = (short) (i + Short.MIN_VALUE);
+            }
+        }
+    }
+
+    public static void sort(char[] array) {
+        int[] count = new int[1 << Character.SIZE];
+        for (char element : array) {
+            ++count[element];
+        }
+
+        int index = 0;
+        for (int i = 0; i < count.length; ++i) {
+            for (int c = count[i]; c > 0; --c) {
+                array[index++] = (char) i;
+            }
+        }
+    }
+
+    // Finds min and max of array[from, to) in one scan. Returns them as longs, so that max - min + 1 can not overflow.
+    private static long[] minMax(int[] array, int from, int to) {
+        if (VectorSupport.enabled) {
+            return VectorScans.minMax(array, from, to);
+        }
+
+        int min = array[from];
+        int max = array[from];
+
+        for (int i = from + 1; i < to; ++i) {
+            int element = array[i];
+            if (element < min) {
+                min = element;
+            } else if (element > max) {
+                max = element;
+            }
+        }
+
+        return new long[]{min, max};
+    }
+
+    // The check of boundedSort (also used by OffHeapSort): the range is at most maxRangePerElement * N, a count array
+    // of that size can be allocated, and the count array plus scratchBytes of other scratch space fit into memoryBudget
+    static boolean countingFits(long range, int elements, long scratchBytes, long memoryBudget) {
+        return range > 0 && range <= (long) maxRangePerElement * elements && range <= maxCountLength
+                && Integer.BYTES * range + scratchBytes <= memoryBudget;
+    }
+
+    // Range of the values, if a count array of that size can be allocated
+    private static int checkedRange(long[] minMax) {
+        long range = minMax[1] - minMax[0] + 1;
+
+        if (range > maxCountLength) {
+            throw new IllegalArgumentException("Range of values " + range + " is too big for counting sort");
+        }
+
+        return (int) range;
+    }
+
 }
@@ -0,0 +1,76 @@
+package algorithms.sorting;
+
+final class DoubleSortSupport {
+    /*
+        Helpers for sorting double[] in the same order as Double.compare / Arrays.sort(double[]):
+        -Infinity < ... < -0.0 < 0.0 < ... < Infinity < NaN.
+
+        The comparison operators do not give this order: every comparison with NaN is false, and -0.0 == 0.0. So the
+        sorts of double[] work in three steps:
+        1) move all NaNs to the end of the array (moveNaNsToEnd) and sort only the rest,
+        2) sort with the plain comparison operators (which are as fast as for long - no Double.compare in the hot loop),
+        3) the zeros are now next to each other, but -0.0 and 0.0 are mixed - count the negative zeros and put them
+           first (placeNegativeZeros).
+    */
+    private DoubleSortSupport() {
+    }
+
+    // Moves all NaNs to the end of the array, keeping the order of the other elements (and of the NaNs, which may have
+    // different bit patterns). Returns the number of non-NaN elements.
+    static int moveNaNsToEnd(double[] array) {
+        int nanCount = 0;
+        for (double element : array) {
+            if (Double.isNaN(element)) {
+                ++nanCount;
+            }
+        }
+        if (nanCount == 0) {
+            return array.length;
+        }
+
+        // Stable compaction of the non-NaN elements to the front, the NaNs are kept aside and appended
+        double[] nans = new double[nanCount];
+        int nanIndex = 0;
+        int nonNaNCount = 0;
+        for (double element : array) {
+            if (Double.isNaN(element)) {
+                nans[nanIndex++] = element;
+            } else {
+                array[nonNaNCount++] = element;
+            }
+        }
+        System.arraycopy(nans, 0, array, nonNaNCount, nanCount);
+
+        return nonNaNCount;
+    }
+
+    // The range [from, to) is sorted by the comparison operators. Puts -0.0 before 0.0 in it.
+    static void placeNegativeZeros(double[] array, int from, int to) {
+        // Find the first element >= 0.0 (the first zero, if there are zeros)
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] < 0.0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        // Count the negative zeros in the block of zeros
+        int zerosEnd = low;
+        int negativeZeros = 0;
+        while (zerosEnd < to && array[zerosEnd] == 0.0) {
+            if (Double.doubleToRawLongBits(array[zerosEnd]) < 0) {
+                ++negativeZeros;
+            }
+            ++zerosEnd;
+        }
+
+        // Rewrite the block: first the negative zeros, then the positive ones
+        for (int i = low; i < zerosEnd; ++i) {
+            array[i] = (i - low < negativeZeros) ? -0.0 : 0.0;
+        }
+    }
+}
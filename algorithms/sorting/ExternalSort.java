@@ -0,0 +1,259 @@
+package algorithms.sorting;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExternalSort {
+    /*
+        External merge sort - sorts a binary file of 32-bit ints that does not fit into the memory (heap).
+
+        1) Run generation: the input file is read chunk by chunk through memory mapping (MappedByteBuffer). Every chunk is
+           as big as the memory allows, it is sorted in memory (with QuickSort.pdqSort - it is not quadratic on chunks
+           that are already sorted) and written to a temporary file - a sorted run.
+        2) K-way merge: all runs are merged at once. Every run is read through its own buffer, the smallest of the
+           current elements of all runs is selected with a min-heap (ties go to the run with the smaller index) and
+           written to the output through another buffer. All reads and writes are large and sequential.
+           If there are more than maxMergeWays runs, groups of runs are first merged into longer runs.
+
+        * Time Complexity  O(N logN) comparisons
+           - I/O: every element is read and written twice (once in each phase), if the runs are merged in one pass.
+        * Space Complexity O(M) memory, where M is the chunk size; O(N) temporary disk space
+        * Not Stable algorithm (the chunks are sorted with pdqsort), which does not matter for int values
+
+        The elements in the file are stored in the given byte order (little-endian by default). The input and output
+        may be the same file.
+    */
+    private static final int ioBufferBytes = 8 << 20;
+    private static final int maxMergeWays = 512;
+    private static final int maxChunkElements = 1 << 28;
+
+    public static void sort(Path input, Path output) throws IOException {
+        // Half of the heap, the chunk is sorted in place
+        long chunkElements = Runtime.getRuntime().maxMemory() / 2 / Integer.BYTES;
+        sort(input, output, ByteOrder.LITTLE_ENDIAN, (int) Math.min(chunkElements, maxChunkElements));
+    }
+
+    public static void sort(Path input, Path output, ByteOrder byteOrder, int chunkElements) throws IOException {
+        if (chunkElements < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkElements);
+        }
+
+        Path tempDirectory = output.toAbsolutePath().getParent();
+        List<Path> runs = new ArrayList<>();
+        // Every temporary file created so far - deleted at the end, also if a step fails halfway
+        List<Path> temporaryFiles = new ArrayList<>();
+
+        try {
+            // 1) Sort the chunks of the input into runs
+            try (FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ)) {
+                long size = inputChannel.size();
+                if (size % Integer.BYTES != 0) {
+                    throw new IllegalArgumentException("File size " + size + " is not a multiple of " + Integer.BYTES);
+                }
+
+                long elements = size / Integer.BYTES;
+                int[] chunk = new int[(int) Math.min(elements, chunkElements)];
+                ByteBuffer buffer = ByteBuffer.allocateDirect(ioBufferBytes).order(byteOrder);
+
+                for (long first = 0; first < elements; first += chunk.length) {
+                    int count = (int) Math.min(chunk.length, elements - first);
+
+                    MappedByteBuffer mapped = inputChannel.map(FileChannel.MapMode.READ_ONLY,
+                            first * Integer.BYTES, (long) count * Integer.BYTES);
+                    mapped.order(byteOrder).asIntBuffer().get(chunk, 0, count);
+
+                    // The last chunk may be partial - sort only its filled part (a copy would double the memory)
+                    QuickSort.pdqSort(chunk, 0, count - 1);
+
+                    Path run = Files.createTempFile(tempDirectory, "sort-run-", ".bin");
+                    temporaryFiles.add(run);
+                    runs.add(run);
+                    try (FileChannel runChannel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+                        writeInts(runChannel, chunk, count, buffer);
+                    }
+                }
+            }
+
+            // 2) Merge groups of runs until they can be merged in one pass, then merge them into the output
+            while (runs.size() > maxMergeWays) {
+                List<Path> mergedRuns = new ArrayList<>();
+                for (int from = 0; from < runs.size(); from += maxMergeWays) {
+                    List<Path> group = runs.subList(from, Math.min(from + maxMergeWays, runs.size()));
+                    Path run = Files.createTempFile(tempDirectory, "sort-run-", ".bin");
+                    temporaryFiles.add(run);
+                    mergedRuns.add(run);
+                    mergeRuns(group, run, byteOrder);
+                    for (Path merged : group) {
+                        Files.delete(merged);
+                    }
+                }
+                runs = mergedRuns;
+            }
+
+            // A single run is already the sorted file
+            if (runs.size() == 1) {
+                Files.move(runs.get(0), output, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                mergeRuns(runs, output, byteOrder);
+            }
+        } finally {
+            for (Path temporaryFile : temporaryFiles) {
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+    }
+
+    // Writes array[0, count) to the channel, through the buffer
+    private static void writeInts(FileChannel channel, int[] array, int count, ByteBuffer buffer) throws IOException {
+        for (int written = 0; written < count; ) {
+            buffer.clear();
+            IntBuffer ints = buffer.asIntBuffer();
+            int length = Math.min(ints.capacity(), count - written);
+            ints.put(array, written, length);
+            written += length;
+
+            buffer.limit(length * Integer.BYTES);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /*
+        K-way merge of sorted run files into the output file.
+        heap holds the indexes of the runs that are not exhausted, ordered by their current element (heads), so the
+        smallest element is always heads[heap[0]].
+    */
+    private static void mergeRuns(List<Path> runs, Path output, ByteOrder byteOrder) throws IOException {
+        int ways = runs.size();
+        // The read buffers of all runs together take at most a quarter of the heap
+        long readMemory = Runtime.getRuntime().maxMemory() / 4 / Math.max(1, ways);
+        int readBufferBytes = (int) Math.max(1 << 16, Math.min(ioBufferBytes, readMemory));
+        RunReader[] readers = new RunReader[ways];
+
+        try (FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            int[] heads = new int[ways];
+            int[] heap = new int[ways];
+            int heapSize = 0;
+
+            for (int run = 0; run < ways; ++run) {
+                readers[run] = new RunReader(runs.get(run), readBufferBytes, byteOrder);
+                if (readers[run].hasNext()) {
+                    heads[run] = readers[run].next();
+                    heap[heapSize++] = run;
+                }
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; --i) {
+                siftDown(heap, heapSize, heads, i);
+            }
+
+            ByteBuffer outputBuffer = ByteBuffer.allocateDirect(ioBufferBytes).order(byteOrder);
+            while (heapSize > 0) {
+                int run = heap[0];
+                outputBuffer.putInt(heads[run]);
+                if (!outputBuffer.hasRemaining()) {
+                    flush(outputChannel, outputBuffer);
+                }
+
+                // Replace the head of the run with its next element, or remove the exhausted run from the heap
+                if (readers[run].hasNext()) {
+                    heads[run] = readers[run].next();
+                } else {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(heap, heapSize, heads, 0);
+            }
+            flush(outputChannel, outputBuffer);
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    private static void siftDown(int[] heap, int heapSize, int[] heads, int i) {
+        int run = heap[i];
+
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+
+            // Pick the smaller child
+            if (child + 1 < heapSize && isBefore(heap[child + 1], heap[child], heads)) {
+                ++child;
+            }
+            if (!isBefore(heap[child], run, heads)) {
+                break;
+            }
+
+            heap[i] = heap[child];
+            i = child;
+        }
+
+        heap[i] = run;
+    }
+
+    // Run first goes before run second if its current element is smaller, or equal and it is an earlier run
+    private static boolean isBefore(int first, int second, int[] heads) {
+        return heads[first] < heads[second] || (heads[first] == heads[second] && first < second);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Sequential reader of a run file with a large buffer
+    private static class RunReader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        RunReader(Path run, int bufferBytes, ByteOrder byteOrder) throws IOException {
+            channel = FileChannel.open(run, StandardOpenOption.READ);
+            buffer = ByteBuffer.allocateDirect(bufferBytes - bufferBytes % Integer.BYTES).order(byteOrder);
+            buffer.flip();
+        }
+
+        boolean hasNext() throws IOException {
+            if (buffer.remaining() >= Integer.BYTES) {
+                return true;
+            }
+
+            // Refill the buffer
+            buffer.compact();
+            while (buffer.position() < Integer.BYTES && channel.read(buffer) >= 0) {
+                // read until at least one element is available or the end of the file
+            }
+            buffer.flip();
+
+            return buffer.remaining() >= Integer.BYTES;
+        }
+
+        int next() {
+            return buffer.getInt();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
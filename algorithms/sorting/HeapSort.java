@@ -0,0 +1,164 @@
+package algorithms.sorting;
+
+public class HeapSort {
+    /*
+        Heap sort can be thought of as an improved selection sort: like selection sort, it divides its input into a sorted
+        and an unsorted region, and it iteratively shrinks the unsorted region by extracting the largest element from it
+        and inserting it into the sorted region. Unlike selection sort, it does not waste time with a linear-time scan
+        of the unsorted region; rather, it maintains the unsorted region in a heap data structure to more quickly find the
+        largest element in each step.
+        - Build a max-heap from the array (the largest element is at the root - index 0).
+        - Swap the root with the last element of the heap, shrink the heap by one and restore the heap property by
+          sifting the new root down. Repeat until the heap is empty.
+
+        The heap is stored in the array itself: the children of index i are at 2i+1 and 2i+2.
+
+
+        * Comparison-based sorting.
+        * Time Complexity  O(N logN) - Worst-case, Average and Best-case
+           - Building the heap takes O(N), each of the N extractions takes O(logN).
+        * Space Complexity O(1)
+           - In-place algorithm
+        * Not Stable algorithm
+        * Not Adaptive
+
+
+        USE:
+        - When a guaranteed O(N logN) worst case is needed with O(1) auxiliary space (Introsort uses it as the fallback
+          of quicksort).
+
+        AVOID:
+        - When a stable sort is needed.
+        - Poor locality of reference - on average it is slower than a well-implemented quicksort.
+    */
+    public static void sort(int[] array) {
+        heapSort(array, 0, array.length - 1);
+    }
+
+    // Heap sort for Introsort implementation. Sorts the range [leftIndex ... rightIndex].
+    public static void heapSort(int[] array, int leftIndex, int rightIndex) {
+        int size = rightIndex - leftIndex + 1;
+
+        // Build a max-heap: sift down every node that has children, starting from the last one
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDown(array, leftIndex, i, size);
+        }
+
+        // Move the current maximum (the root) to the end of the heap and restore the heap on the remaining elements
+        for (int heapSize = size - 1; heapSize > 0; --heapSize) {
+            swap(array, leftIndex, leftIndex + heapSize);
+            siftDown(array, leftIndex, 0, heapSize);
+        }
+    }
+
+    // Moves the element at heap index i down until both of its children are smaller (heap indexes are relative to offset)
+    private static void siftDown(int[] array, int offset, int i, int heapSize) {
+        int element = array[offset + i];
+
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+
+            // Pick the bigger child
+            if (child + 1 < heapSize && SortMetrics.compared(array[offset + child + 1] > array[offset + child])) {
+                ++child;
+            }
+            if (SortMetrics.compared(element >= array[offset + child])) {
+                break;
+            }
+
+            // Move the child up instead of swapping, the element is written once at its final position
+            array[offset + i] = array[offset + child];
+            SortMetrics.moved(1);
+            i = child;
+        }
+
+        array[offset + i] = element;
+    }
+
+    // Specializations of heapSort for Introsort of long[] and double[] (same code, different element type)
+    public static void heapSort(long[] array, int leftIndex, int rightIndex) {
+        int size = rightIndex - leftIndex + 1;
+
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDown(array, leftIndex, i, size);
+        }
+
+        for (int heapSize = size - 1; heapSize > 0; --heapSize) {
+            long temp = array[leftIndex];
+            array[leftIndex] = array[leftIndex + heapSize];
+            array[leftIndex + heapSize] = temp;
+            siftDown(array, leftIndex, 0, heapSize);
+        }
+    }
+
+    private static void siftDown(long[] array, int offset, int i, int heapSize) {
+        long element = array[offset + i];
+
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+
+            if (child + 1 < heapSize && array[offset + child + 1] > array[offset + child]) {
+                ++child;
+            }
+            if (element >= array[offset + child]) {
+                break;
+            }
+
+            array[offset + i] = array[offset + child];
+            i = child;
+        }
+
+        array[offset + i] = element;
+    }
+
+    public static void heapSort(double[] array, int leftIndex, int rightIndex) {
+        int size = rightIndex - leftIndex + 1;
+
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDown(array, leftIndex, i, size);
+        }
+
+        for (int heapSize = size - 1; heapSize > 0; --heapSize) {
+            double temp = array[leftIndex];
+            array[leftIndex] = array[leftIndex + heapSize];
+            array[leftIndex + heapSize] = temp;
+            siftDown(array, leftIndex, 0, heapSize);
+        }
+    }
+
+    private static void siftDown(double[] array, int offset, int i, int heapSize) {
+        double element = array[offset + i];
+
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+
+            if (child + 1 < heapSize && array[offset + child + 1] > array[offset + child]) {
+                ++child;
+            }
+            if (element >= array[offset + child]) {
+                break;
+            }
+
+            array[offset + i] = array[offset + child];
+            i = child;
+        }
+
+        array[offset + i] = element;
+    }
+
+    private static void swap(int[] array, int firstIndex, int secondIndex) {
+        SortMetrics.swapped();
+        int temp = array[firstIndex];
+        array[firstIndex] = array[secondIndex];
+        array[secondIndex] = temp;
+    }
+}
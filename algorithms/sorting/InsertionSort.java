@@ -48,12 +48,13 @@ public class InsertionSort {
 
             // In the sorted sub-array shifts all larger elements back to make space for currentElement right position
             int j = i - 1;
-            while (j >= 0 && currentElement < array[j]) {
+            while (j >= 0 && SortMetrics.compared(currentElement < array[j])) {
                 array[j + 1] = array[j];
                 --j;
             }
 
             array[j + 1] = currentElement;
+            SortMetrics.moved(i - j);
         }
     }
 
@@ -76,6 +77,7 @@ public class InsertionSort {
         if (size <= 1) {
             return;
         }
+        SortMetrics.enter();
 
         // Sort first size-1 elements
         recurse(array, size - 1);
@@ -83,11 +85,13 @@ public class InsertionSort {
         // Insert last element at its correct position in the sorted array
         int lastElement = array[size - 1];
         int j = size - 2;
-        while (j >= 0 && lastElement < array[j]) {
+        while (j >= 0 && SortMetrics.compared(lastElement < array[j])) {
             array[j + 1] = array[j];
             --j;
         }
         array[j + 1] = lastElement;
+        SortMetrics.moved(size - 1 - j);
+        SortMetrics.exit();
     }
 
     /*
@@ -115,19 +119,41 @@ public class InsertionSort {
             }
 
             array[insertPosition] = currentElement;
+            SortMetrics.moved(i - insertPosition + 1);
+        }
+    }
+
+    // Binary insertion sort for TimSort implementation. The range [leftIndex ... startIndex-1] is already sorted, the
+    // elements [startIndex ... rightIndex] are inserted into it one by one.
+    public static void binaryInsertionSort(int[] array, int leftIndex, int rightIndex, int startIndex) {
+        if (startIndex == leftIndex) {
+            ++startIndex;
+        }
+
+        for (int i = startIndex; i <= rightIndex; ++i) {
+
+            int currentElement = array[i];
+            // Find the position where currentElement should be inserted (after all equal elements - keeps it stable)
+            int insertPosition = binarySearch(array, leftIndex, i - 1, currentElement);
+
+            // Shift all elements after insertPosition back to make space for currentElement
+            System.arraycopy(array, insertPosition, array, insertPosition + 1, i - insertPosition);
+
+            array[insertPosition] = currentElement;
+            SortMetrics.moved(i - insertPosition + 1);
         }
     }
 
     // Binary search based function to find the position of the element just greater than key-element in [start ... end] array
     private static int binarySearch(int[] array, int start, int end, int key) {
         if (start >= end) {
-            return (key < array[end]) ? end : end + 1;
+            return SortMetrics.compared(key < array[end]) ? end : end + 1;
         }
 
         // Addition can overflow -> using workaround
         int mid = end + (start - end) / 2;
 
-        if (key >= array[mid]) {
+        if (SortMetrics.compared(key >= array[mid])) {
             return binarySearch(array, mid + 1, end, key);
         }
 
@@ -142,7 +168,37 @@ public class InsertionSort {
 
             // In the sorted sub-array shifts all larger elements back to make space for currentElement right position
             int j = i - 1;
-            while (j >= 0 && currentElement < array[j]) {
+            while (j >= leftIndex && SortMetrics.compared(currentElement < array[j])) {
+                array[j + 1] = array[j];
+                --j;
+            }
+
+            array[j + 1] = currentElement;
+            SortMetrics.moved(i - j);
+        }
+    }
+
+    // Specializations of insertionSort for Introsort of long[] and double[] (same code, different element type)
+    public static void insertionSort(long[] array, int leftIndex, int rightIndex) {
+        for (int i = leftIndex + 1; i <= rightIndex; ++i) {
+            long currentElement = array[i];
+
+            int j = i - 1;
+            while (j >= leftIndex && currentElement < array[j]) {
+                array[j + 1] = array[j];
+                --j;
+            }
+
+            array[j + 1] = currentElement;
+        }
+    }
+
+    public static void insertionSort(double[] array, int leftIndex, int rightIndex) {
+        for (int i = leftIndex + 1; i <= rightIndex; ++i) {
+            double currentElement = array[i];
+
+            int j = i - 1;
+            while (j >= leftIndex && currentElement < array[j]) {
                 array[j + 1] = array[j];
                 --j;
             }
@@ -0,0 +1,279 @@
+package algorithms.sorting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+public final class KWayMerger {
+    /*
+        K-way merge of sorted inputs with a loser tree (tournament tree)
+
+        MergeSort.merge combines two sorted ranges. K sorted inputs (the outputs of K partitions, shards, runs...) merged
+        pairwise take log2(K) passes over all elements; a K-way merge reads and writes every element once.
+
+        The inputs are K sorted int[] arrays, or slices inputs[i][from[i], to[i]). The output goes into a destination
+        array, or element by element to a consumer (streaming - nothing is buffered). Equal elements are taken in the order
+        of their inputs (input 0 first), so the merge is stable, like MergeSort.merge.
+
+        Loser tree: a complete binary tree with the K inputs as its leaves. Every inner node stores the loser of the match
+        between the winners of its two subtrees, the overall winner (the smallest current element) is stored above the
+        root. After the winner is output, only the path from its leaf to the root is replayed - the new element of that
+        input plays against the stored losers. That is exactly log2(K) comparisons per element, and unlike a binary heap
+        (ExternalSort uses one) it does not compare the two children of a node first.
+        The current element of every input and the number of the input are packed into one long key
+        ((value << 32) | input), so one long comparison orders by value and breaks ties by the input number. An exhausted
+        input has the key Long.MAX_VALUE, greater than every real key. The nodes store these keys (the input number is
+        part of the key), so a match is a Math.min / Math.max pair without a branch - the outcome of the matches is not
+        predictable, and a mispredicted branch on every level would cost more than the comparison.
+
+        Parallel merge: the output range is cut into parts, and the co-rank of every cut position p is computed - for every
+        input, how many of the first p merged elements come from it. A binary search over the int values finds the value
+        v of the element at position p; all elements smaller than v are before p, and the remaining positions are filled
+        with the elements equal to v in the order of the inputs (the stable order). The parts are then merged
+        independently, each with its own loser tree, by the workers of the common ForkJoinPool (as MergeSort.parallelSort
+        splits its merges, for K inputs instead of two).
+
+        * Time Complexity  O(N logK), N = the number of all elements
+           - parallel: O(N logK / P) on P cores, plus O(32 * K * logN) for every cut position
+        * Space Complexity O(K) - the tree and the positions of the inputs (plus the output)
+        * Stable
+    */
+    private static final int parallelThreshold = 1 << 16;
+
+    private KWayMerger() {
+    }
+
+    public static int[] merge(int[][] inputs) {
+        int[] from = new int[inputs.length];
+        int[] to = ends(inputs);
+        int[] destination = new int[checkedTotal(inputs, from, to)];
+        merge(inputs, from, to, destination, 0);
+        return destination;
+    }
+
+    // Merges the slices inputs[i][from[i], to[i]) into destination[destinationFrom ...]
+    public static void merge(int[][] inputs, int[] from, int[] to, int[] destination, int destinationFrom) {
+        int total = checkedTotal(inputs, from, to);
+        checkDestination(destination, destinationFrom, total);
+
+        LoserTree tree = new LoserTree(inputs, from.clone(), to);
+        for (int i = destinationFrom; i < destinationFrom + total; ++i) {
+            destination[i] = tree.next();
+        }
+    }
+
+    public static void merge(int[][] inputs, IntConsumer consumer) {
+        merge(inputs, new int[inputs.length], ends(inputs), consumer);
+    }
+
+    // Streams the merged slices inputs[i][from[i], to[i]) to the consumer
+    public static void merge(int[][] inputs, int[] from, int[] to, IntConsumer consumer) {
+        int total = checkedTotal(inputs, from, to);
+
+        LoserTree tree = new LoserTree(inputs, from.clone(), to);
+        for (int i = 0; i < total; ++i) {
+            consumer.accept(tree.next());
+        }
+    }
+
+    public static int[] parallelMerge(int[][] inputs) {
+        int[] from = new int[inputs.length];
+        int[] to = ends(inputs);
+        int[] destination = new int[checkedTotal(inputs, from, to)];
+        parallelMerge(inputs, from, to, destination, 0);
+        return destination;
+    }
+
+    // Same as merge(inputs, from, to, destination, destinationFrom), split between the workers of the common pool
+    public static void parallelMerge(int[][] inputs, int[] from, int[] to, int[] destination, int destinationFrom) {
+        int total = checkedTotal(inputs, from, to);
+        checkDestination(destination, destinationFrom, total);
+
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (total < parallelThreshold || parallelism <= 1) {
+            merge(inputs, from, to, destination, destinationFrom);
+            return;
+        }
+
+        // Cut the output into parts and find the co-ranks of the cut positions: part p is the merge of the slices
+        // inputs[i][cuts[p][i], cuts[p + 1][i])
+        int parts = Math.min(4 * parallelism, total / (parallelThreshold / 4));
+        int[][] cuts = new int[parts + 1][];
+        cuts[0] = from;
+        cuts[parts] = to;
+        for (int p = 1; p < parts; ++p) {
+            cuts[p] = coRank(inputs, from, to, (int) ((long) total * p / parts));
+        }
+
+        List<RecursiveAction> tasks = new ArrayList<>(parts);
+        for (int p = 0; p < parts; ++p) {
+            final int[] partFrom = cuts[p];
+            final int[] partTo = cuts[p + 1];
+            final int partDestination = destinationFrom + (int) ((long) total * p / parts);
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    merge(inputs, partFrom, partTo, destination, partDestination);
+                }
+            });
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /*
+        Co-rank of position k: the positions[i] in every input such that the first k elements of the stable merge are
+        exactly the elements of inputs[i][from[i], positions[i]).
+        Binary search for the value v of the k-th element (the smallest v with more than k elements <= v), then all
+        elements < v are taken, and k - (number of elements < v) elements equal to v, from the first inputs first.
+    */
+    private static int[] coRank(int[][] inputs, int[] from, int[] to, int k) {
+        long low = Integer.MIN_VALUE;
+        long high = Integer.MAX_VALUE;
+        while (low < high) {
+            long mid = (low + high) >> 1;
+            long atMost = 0;
+            for (int i = 0; i < inputs.length; ++i) {
+                atMost += upperBound(inputs[i], from[i], to[i], (int) mid) - from[i];
+            }
+
+            if (atMost > k) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        int value = (int) low;
+
+        int[] positions = new int[inputs.length];
+        long remaining = k;
+        for (int i = 0; i < inputs.length; ++i) {
+            positions[i] = lowerBound(inputs[i], from[i], to[i], value);
+            remaining -= positions[i] - from[i];
+        }
+        for (int i = 0; i < inputs.length && remaining > 0; ++i) {
+            int equal = upperBound(inputs[i], positions[i], to[i], value) - positions[i];
+            int taken = (int) Math.min(equal, remaining);
+            positions[i] += taken;
+            remaining -= taken;
+        }
+        return positions;
+    }
+
+    // Index of the first element >= value in array[from, to)
+    private static int lowerBound(int[] array, int from, int to, int value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (array[mid] < value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    // Index of the first element > value in array[from, to)
+    private static int upperBound(int[] array, int from, int to, int value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (array[mid] <= value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private static int[] ends(int[][] inputs) {
+        int[] to = new int[inputs.length];
+        for (int i = 0; i < inputs.length; ++i) {
+            to[i] = inputs[i].length;
+        }
+        return to;
+    }
+
+    // Checks the slices and returns the number of all elements
+    private static int checkedTotal(int[][] inputs, int[] from, int[] to) {
+        if (from.length != inputs.length || to.length != inputs.length) {
+            throw new IllegalArgumentException("from and to must have one entry per input (" + inputs.length + ")");
+        }
+
+        long total = 0;
+        for (int i = 0; i < inputs.length; ++i) {
+            if (from[i] < 0 || to[i] > inputs[i].length || from[i] > to[i]) {
+                throw new IllegalArgumentException("Invalid slice [" + from[i] + ", " + to[i] + ") of input " + i
+                        + " with " + inputs[i].length + " elements");
+            }
+            total += to[i] - from[i];
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many elements for one array: " + total);
+        }
+        return (int) total;
+    }
+
+    private static void checkDestination(int[] destination, int destinationFrom, int total) {
+        if (destinationFrom < 0 || destinationFrom > destination.length - total) {
+            throw new IllegalArgumentException("The destination has no room for " + total + " elements at "
+                    + destinationFrom);
+        }
+    }
+
+    private static final class LoserTree {
+        private final int[][] inputs;
+        private final int[] positions;
+        private final int[] ends;
+        // nodes[0] is the key of the winner, nodes[1 ... K-1] the keys of the losers of the inner nodes. Leaf i is
+        // node K + i, the parent of node n is n / 2.
+        private final long[] nodes;
+
+        LoserTree(int[][] inputs, int[] positions, int[] ends) {
+            int k = inputs.length;
+            this.inputs = inputs;
+            this.positions = positions;
+            this.ends = ends;
+            this.nodes = new long[Math.max(1, k)];
+
+            // Play all matches bottom-up: the winners of the subtrees move up, the losers stay in the nodes
+            long[] winners = new long[2 * k];
+            for (int i = 0; i < k; ++i) {
+                winners[k + i] = key(i);
+            }
+            for (int node = k - 1; node >= 1; --node) {
+                nodes[node] = Math.max(winners[2 * node], winners[2 * node + 1]);
+                winners[node] = Math.min(winners[2 * node], winners[2 * node + 1]);
+            }
+            if (k > 0) {
+                nodes[0] = winners[1];
+            }
+        }
+
+        // Returns the smallest current element and replays the path of its input
+        int next() {
+            long winnerKey = nodes[0];
+            int input = (int) winnerKey;
+            ++positions[input];
+
+            // The next element of the same input plays against the losers on the path to the root
+            long key = key(input);
+            for (int node = (input + nodes.length) >>> 1; node > 0; node >>>= 1) {
+                long loser = nodes[node];
+                nodes[node] = Math.max(loser, key);
+                key = Math.min(loser, key);
+            }
+            nodes[0] = key;
+
+            return (int) (winnerKey >> 32);
+        }
+
+        private long key(int input) {
+            return positions[input] < ends[input]
+                    ? ((long) inputs[input][positions[input]] << 32) | input
+                    : Long.MAX_VALUE;
+        }
+    }
+}
@@ -1,52 +1,429 @@
 package algorithms.sorting;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
 public class Main {
+    /*
+        Command-line sort tool
+
+        java -cp <classpath> algorithms.sorting.Main [options] <input> [<output>]
+
+        Sorts a file of 32-bit ints with the chosen algorithm and writes the result to the output file (by default back
+        to the input file). Prints the time of the sort, the throughput and the peak heap use, so algorithms can be
+        compared on real data and real hardware without writing Java.
+
+        File formats (--format):
+        - binary (default): little-endian 32-bit ints, no header.
+          Read: the file is memory-mapped (FileChannel.map) and copied into the array with one bulk get - no read calls,
+          no intermediate buffers. Write: the output is memory-mapped and the array is stored with one bulk put, the
+          operating system writes the pages back to the file.
+          The offheap-* algorithms do not copy at all: the input is copied to the output file (FileChannel.transferTo,
+          inside the kernel), the output is mapped read-write and sorted in place in the page cache (OffHeapSort, at
+          most 2 GB). "external" sorts files bigger than the heap (ExternalSort).
+        - text: integers separated by whitespace or commas. The mapped file is parsed directly from its bytes (no
+          Strings), the output has one integer per line.
+
+        The algorithms are the sorts of this package (--list). "auto" lets Sorter choose and prints its decision.
+        The peak heap is the sum of the peak usage of the heap memory pools during the sort (the pools are reset before).
+    */
+    private static final Map<String, Consumer<int[]>> arraySorts = new LinkedHashMap<>();
+    private static final Map<String, Consumer<ByteBuffer>> mappedSorts = new LinkedHashMap<>();
+    private static final String externalSort = "external";
+    private static final int maxMappedBytes = 1 << 30;
+
+    static {
+        arraySorts.put("auto", array -> System.out.println("auto: " + Sorter.sort(array)));
+        arraySorts.put("selection", SelectionSort::sort);
+        arraySorts.put("selection-stable", SelectionSort::stableSort);
+        arraySorts.put("bubble", BubbleSort::sort);
+        arraySorts.put("bubble-improved", BubbleSort::improvedSort);
+        arraySorts.put("insertion", InsertionSort::sort);
+        arraySorts.put("insertion-binary", InsertionSort::binarySort);
+        arraySorts.put("heap", HeapSort::sort);
+        arraySorts.put("merge", MergeSort::recursiveSort);
+        arraySorts.put("merge-iterative", MergeSort::iterativeSort);
+        arraySorts.put("merge-buffered", MergeSort::bufferedSort);
+        arraySorts.put("merge-parallel", MergeSort::parallelSort);
+        arraySorts.put("merge-in-place", MergeSort::inPlaceSort);
+        arraySorts.put("tim", TimSort::sort);
+        arraySorts.put("quick", QuickSort::sort);
+        arraySorts.put("quick-optimized", QuickSort::optimizedSort);
+        arraySorts.put("quick-hybrid", QuickSort::hybridSort);
+        arraySorts.put("quick-hybrid-hoare", array -> QuickSort.hybridSort(array, QuickSort.PartitionScheme.HOARE));
+        arraySorts.put("quick-hybrid-block", array -> QuickSort.hybridSort(array, QuickSort.PartitionScheme.BLOCK));
+        arraySorts.put("quick-iterative", QuickSort::iterativeSort);
+        arraySorts.put("three-way", QuickSort::threeWaySort);
+        arraySorts.put("intro", QuickSort::introSort);
+        arraySorts.put("pdq", QuickSort::pdqSort);
+        arraySorts.put("quick-parallel", QuickSort::parallelSort);
+        arraySorts.put("counting", CountingSort::sort);
+        arraySorts.put("counting-bounded", CountingSort::boundedSort);
+        arraySorts.put("counting-parallel", CountingSort::parallelSort);
+        arraySorts.put("radix", RadixSort::sort);
+        arraySorts.put("radix-msd", RadixSort::msdSort);
+
+        mappedSorts.put("offheap-intro", buffer -> OffHeapSort.introSort(buffer, Integer.BYTES, Integer.BYTES));
+        mappedSorts.put("offheap-merge", buffer -> OffHeapSort.mergeSort(buffer, Integer.BYTES, Integer.BYTES));
+        mappedSorts.put("offheap-counting", buffer -> OffHeapSort.countingSort(buffer, Integer.BYTES, Integer.BYTES));
+    }
+
+    // Options of the command line
+    static final class Options {
+        String algorithm = "auto";
+        boolean text = false;
+        Path input;
+        Path output;
+    }
 
     public static void main(String[] args) {
+        Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        if (options == null) {
+            return;
+        }
 
-        int[] worstCaseArray = {99, 85, 61, 23, 2, 0, -14};
-        int[] averageArray = {16, -25, 38, 55, 38, 1, 12, 120, 9};
-        int[] biggerArray = {24, 97, 40, 67, 88, -85, 15, 66, 53, 44, -26, 48, 16, 52, 44, 23, 97, 18, 44, 80};
-        int[] bestCaseArray = {-3, -2, -1, 0, 1, 2, 3};
-        int[] repeatArray = {6, -8, -3, -3, 2, 5, 6, 2, -10, -3};
+        try {
+            Path output = options.output != null ? options.output : options.input;
+            sort(options.algorithm, options.text, options.input, output);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Sorting " + options.input + " failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
 
-        print(averageArray);
+    // Returns null if the arguments only asked for the list or the help (already printed)
+    static Options parse(String[] args) {
+        Options options = new Options();
 
-        //SelectionSort.sort(averageArray);
-        //SelectionSort.stableSort(averageArray);
+        for (int i = 0; i < args.length; ++i) {
+            switch (args[i]) {
+                case "-a":
+                case "--algorithm":
+                    options.algorithm = value(args, ++i);
+                    break;
+                case "-f":
+                case "--format":
+                    String format = value(args, ++i);
+                    if (!format.equals("binary") && !format.equals("text")) {
+                        throw new IllegalArgumentException("Unknown format: " + format);
+                    }
+                    options.text = format.equals("text");
+                    break;
+                case "--list":
+                    System.out.println(String.join(" ", arraySorts.keySet()) + " "
+                            + String.join(" ", mappedSorts.keySet()) + " " + externalSort);
+                    return null;
+                case "-h":
+                case "--help":
+                    printUsage();
+                    return null;
+                default:
+                    if (args[i].startsWith("-")) {
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                    } else if (options.input == null) {
+                        options.input = Paths.get(args[i]);
+                    } else if (options.output == null) {
+                        options.output = Paths.get(args[i]);
+                    } else {
+                        throw new IllegalArgumentException("Too many files: " + args[i]);
+                    }
+            }
+        }
 
-        //BubbleSort.sort(averageArray);
-        //BubbleSort.improvedSort(averageArray);
-        //BubbleSort.recursiveSort(averageArray);
+        if (options.input == null) {
+            throw new IllegalArgumentException("No input file");
+        }
+        if (!arraySorts.containsKey(options.algorithm) && !mappedSorts.containsKey(options.algorithm)
+                && !options.algorithm.equals(externalSort)) {
+            throw new IllegalArgumentException("Unknown algorithm: " + options.algorithm + " (see --list)");
+        }
+        if (options.text && !arraySorts.containsKey(options.algorithm)) {
+            throw new IllegalArgumentException(options.algorithm + " sorts binary files only");
+        }
+        return options;
+    }
+
+    static void sort(String algorithm, boolean text, Path input, Path output) throws IOException {
+        long start = System.nanoTime();
+        long bytes = Files.size(input);
+        long elements;
+        long sortNanos;
+        long peakHeap;
+
+        if (arraySorts.containsKey(algorithm)) {
+            int[] array = text ? readText(input) : readBinary(input);
+            long read = System.nanoTime();
 
-        //InsertionSort.sort(averageArray);
-        //InsertionSort.recursiveSort(averageArray);
-        //InsertionSort.binarySort(averageArray);
+            resetPeakHeap();
+            long sortStart = System.nanoTime();
+            arraySorts.get(algorithm).accept(array);
+            sortNanos = System.nanoTime() - sortStart;
+            peakHeap = peakHeap();
 
-        //MergeSort.recursiveSort(averageArray);
-        //MergeSort.iterativeSort(averageArray);
+            long write = System.nanoTime();
+            if (text) {
+                writeText(output, array);
+            } else {
+                writeBinary(output, array);
+            }
+            elements = array.length;
+            System.out.printf(Locale.ROOT, "read %.1f ms, write %.1f ms%n",
+                    (read - start) / 1e6, (System.nanoTime() - write) / 1e6);
+        } else {
+            checkBinarySize(bytes);
+            elements = bytes / Integer.BYTES;
 
-        //QuickSort.sort(averageArray);
-        //QuickSort.optimizedSort(averageArray);
-        //QuickSort.hybridSort(biggerArray);
-        //QuickSort.threeWaySort(countingSortArray);
-        //QuickSort.iterativeSort(averageArray);
+            resetPeakHeap();
+            long sortStart = System.nanoTime();
+            if (algorithm.equals(externalSort)) {
+                ExternalSort.sort(input, output);
+            } else {
+                sortMapped(mappedSorts.get(algorithm), input, output, bytes);
+            }
+            sortNanos = System.nanoTime() - sortStart;
+            peakHeap = peakHeap();
+        }
+
+        double megabytes = elements * (double) Integer.BYTES / (1 << 20);
+        System.out.printf(Locale.ROOT, "%s: %d ints (%.1f MB) sorted in %.1f ms, %.1f MB/s, peak heap %.1f MB, "
+                        + "total %.1f ms%n", algorithm, elements, megabytes, sortNanos / 1e6,
+                megabytes / Math.max(sortNanos / 1e9, 1e-9), peakHeap / (double) (1 << 20),
+                (System.nanoTime() - start) / 1e6);
+    }
 
-        //CountingSort.sort(countingSortArray);
-        //CountingSort.simpleSort(countingSortArray);
+    // Copies the input to the output inside the kernel (if they differ) and sorts the mapped output in place
+    private static void sortMapped(Consumer<ByteBuffer> sort, Path input, Path output, long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The offheap algorithms sort at most 2 GB, the file has " + bytes
+                    + " bytes (use " + externalSort + ")");
+        }
 
-        print(averageArray);
+        try (FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (!Files.isSameFile(input, output)) {
+                try (FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ)) {
+                    outputChannel.truncate(0);
+                    for (long copied = 0; copied < bytes; ) {
+                        copied += inputChannel.transferTo(copied, bytes - copied, outputChannel);
+                    }
+                }
+            }
 
+            MappedByteBuffer mapped = outputChannel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            sort.accept(mapped.order(ByteOrder.LITTLE_ENDIAN));
+            mapped.force();
+        }
     }
 
+    static int[] readBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            checkBinarySize(bytes);
+            int[] array = new int[checkedLength(bytes / Integer.BYTES)];
+
+            // One mapping holds at most 2 GB - map the file in parts
+            for (long position = 0; position < bytes; position += maxMappedBytes) {
+                long length = Math.min(maxMappedBytes, bytes - position);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer()
+                        .get(array, (int) (position / Integer.BYTES), (int) (length / Integer.BYTES));
+            }
+            return array;
+        }
+    }
 
-    private static void print(final int[] array) {
-        System.out.print(array[0]);
+    static void writeBinary(Path path, int[] array) throws IOException {
+        long bytes = (long) array.length * Integer.BYTES;
 
-        for (int i = 1; i < array.length; ++i) {
-            System.out.print(", " + array[i]);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            channel.truncate(bytes);
+            for (long position = 0; position < bytes; position += maxMappedBytes) {
+                long length = Math.min(maxMappedBytes, bytes - position);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, position, length);
+                mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer()
+                        .put(array, (int) (position / Integer.BYTES), (int) (length / Integer.BYTES));
+                mapped.force();
+            }
         }
+    }
+
+    // Parses the integers of the mapped file, separated by anything that is not a digit or '-'
+    static int[] readText(Path path) throws IOException {
+        int[] array = new int[1024];
+        int count = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            long value = 0;
+            boolean negative = false;
+            boolean inNumber = false;
+            long numberStart = 0;
+
+            // The parts are mapped one after the other, a number can continue in the next part
+            for (long position = 0; position < bytes; position += maxMappedBytes) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(maxMappedBytes, bytes - position));
+
+                while (mapped.hasRemaining()) {
+                    byte character = mapped.get();
+
+                    if (character >= '0' && character <= '9') {
+                        if (!inNumber) {
+                            inNumber = true;
+                            numberStart = position + mapped.position() - 1;
+                        }
+                        value = value * 10 + (character - '0');
+                        if (value > (negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE)) {
+                            throw new IllegalArgumentException("Number at byte " + numberStart + " is not an int");
+                        }
+                    } else if (character == '-' && !inNumber && !negative) {
+                        negative = true;
+                    } else if (isSeparator(character)) {
+                        if (inNumber) {
+                            if (count == array.length) {
+                                array = Arrays.copyOf(array, checkedLength(2L * count));
+                            }
+                            array[count++] = (int) (negative ? -value : value);
+                        } else if (negative) {
+                            throw new IllegalArgumentException("'-' without a number at byte "
+                                    + (position + mapped.position() - 2));
+                        }
+                        value = 0;
+                        negative = false;
+                        inNumber = false;
+                    } else {
+                        throw new IllegalArgumentException("Unexpected character '" + (char) character + "' at byte "
+                                + (position + mapped.position() - 1));
+                    }
+                }
+            }
+
+            // The last number, if the file does not end with a separator
+            if (inNumber) {
+                if (count == array.length) {
+                    array = Arrays.copyOf(array, checkedLength(count + 1L));
+                }
+                array[count++] = (int) (negative ? -value : value);
+            } else if (negative) {
+                throw new IllegalArgumentException("'-' without a number at the end of the file");
+            }
+        }
+
+        return Arrays.copyOf(array, count);
+    }
+
+    private static boolean isSeparator(byte character) {
+        return character == ' ' || character == '\n' || character == '\r' || character == '\t' || character == ',';
+    }
+
+    static void writeText(Path path, int[] array) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        byte[] digits = new byte[12];
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int element : array) {
+                if (buffer.remaining() < digits.length) {
+                    flush(channel, buffer);
+                }
+
+                // Digits from the last one, as a long so that -Integer.MIN_VALUE does not overflow
+                long value = Math.abs((long) element);
+                int length = 0;
+                do {
+                    digits[length++] = (byte) ('0' + value % 10);
+                    value /= 10;
+                } while (value > 0);
+
+                if (element < 0) {
+                    buffer.put((byte) '-');
+                }
+                while (length > 0) {
+                    buffer.put(digits[--length]);
+                }
+                buffer.put((byte) '\n');
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void checkBinarySize(long bytes) {
+        if (bytes % Integer.BYTES != 0) {
+            throw new IllegalArgumentException("File size " + bytes + " is not a multiple of " + Integer.BYTES);
+        }
+    }
+
+    private static int checkedLength(long length) {
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many ints for one array: " + length + " (use " + externalSort + ")");
+        }
+        return (int) length;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        }
+        return args[i];
+    }
 
-        System.out.println();
+    private static void printUsage() {
+        System.err.println("Usage: java -cp <classpath> algorithms.sorting.Main [options] <input> [<output>]");
+        System.err.println("Sorts a file of 32-bit ints, writes the result to <output> (default: back to <input>).");
+        System.err.println("  -a, --algorithm <name>  sorting algorithm, default auto (see --list)");
+        System.err.println("  -f, --format <format>   binary (little-endian ints, default) or text (one int per line,");
+        System.err.println("                          or separated by spaces or commas)");
+        System.err.println("      --list              lists the algorithms");
+        System.err.println("  -h, --help              prints this help");
     }
 }
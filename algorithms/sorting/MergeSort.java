@@ -1,5 +1,9 @@
 package algorithms.sorting;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 public class MergeSort {
 
     /*
@@ -20,6 +24,7 @@ public class MergeSort {
            - Requires temporary array to store the merged and sorted sub-arrays. All elements are copied into an auxiliary
            array so N auxiliary space is required for merge sort.
            - There are variant with reduced space complexity and cost of copying (example Block (Merge) sort).
+             inPlaceSort below merges in place with a small fixed buffer.
         * Stable algorithm
         * Not Adaptive
 
@@ -49,6 +54,7 @@ public class MergeSort {
         if (right - left < 1) {
             return;
         }
+        SortMetrics.enter();
 
         // Divide the array into two sub-arrays (almost equal halves) and make a recursive call to sort the sub-arrays.
         int mid = left + (right - left) / 2;
@@ -58,10 +64,12 @@ public class MergeSort {
 
         // Merge both sorted sub-arrays array[left, mid] and array[mid + 1, right] to form sorted array
         merge(array, left, mid, right);
+        SortMetrics.exit();
     }
 
     private static void merge(int[] array, int left, int mid, int right) {
         int[] mergedArray = new int[right - left + 1];
+        SortMetrics.allocated(4L * mergedArray.length);
         int firstArrayIndex = left;
         int secondArrayIndex = mid + 1;
         int mergedArrayIndex = 0;
@@ -70,7 +78,7 @@ public class MergeSort {
         while (firstArrayIndex <= mid && secondArrayIndex <= right) {
 
             // Stable sort -> if current elements of both sub-arrays are equal, select the element from the left sub-array.
-            if (array[firstArrayIndex] <= array[secondArrayIndex]) {
+            if (SortMetrics.compared(array[firstArrayIndex] <= array[secondArrayIndex])) {
                 mergedArray[mergedArrayIndex] = array[firstArrayIndex];
                 ++mergedArrayIndex;
                 ++firstArrayIndex;
@@ -98,6 +106,7 @@ public class MergeSort {
         for (int i = left; i <= right; ++i) {
             array[i] = mergedArray[i - left];
         }
+        SortMetrics.moved(2L * mergedArray.length);
     }
 
 
@@ -120,4 +129,572 @@ public class MergeSort {
         }
     }
 
+
+    /*
+        In-place stable Merge sort (O(1) extra memory)
+
+        The merge above needs an auxiliary array as long as the merged ranges - sorting a 2 GB array takes another 2 GB.
+        This variant merges in place, in the style of the block merge sorts, and keeps the sort stable:
+        - Blocks of inPlaceBlockSize elements are sorted with insertion sort, then merged bottom-up, like iterativeSort.
+        - A merge whose shorter range fits into a small fixed buffer (inPlaceBufferSize elements, allocated once per sort)
+          copies that range into the buffer and merges in one linear pass - forwards if it is the left range, backwards
+          if it is the right one.
+        - A larger merge is split in place (SymMerge / rotation merge): take the middle element x of the longer range and
+          find with a binary search where x belongs in the shorter range. Rotating the block between the two cuts puts
+          x at its final position, with everything smaller before it and everything bigger after it, and leaves two
+          independent, smaller merges (left part and right part). Ties never cross each other - equal elements of the
+          right range stay after x if x comes from the left range, equal elements of the left range stay before x if x
+          comes from the right range - so the merge stays stable. The splitting continues until the shorter range fits
+          into the buffer. The rotations use the buffer as well when the shorter block fits, three reversals otherwise.
+        - Two ranges that are already in order (last of the left <= first of the right) are not merged at all, so sorted
+          input costs one comparison per merge.
+
+        * Time Complexity  O(N logN logN) worst case (O(N logN) moves per level of the bottom-up merge)
+           - Merges with a range shorter than the buffer are linear, so in practice it is a constant factor slower than
+             the merge sort with an O(N) buffer, not a log factor.
+        * Space Complexity O(1) - the fixed buffer, plus O(logN) stack for the splitting
+        * Stable algorithm
+        * Adaptive for presorted input (ranges that are already in order are skipped)
+    */
+    private static final int inPlaceBlockSize = 16;
+    private static final int inPlaceBufferSize = 512;
+
+    public static void inPlaceSort(int[] array) {
+        int length = array.length;
+        int[] buffer = new int[Math.min(length, inPlaceBufferSize)];
+        SortMetrics.allocated(4L * buffer.length);
+
+        // The positions are longs: for arrays longer than 2^30 elements, 2 * width and the steps past the end of the
+        // array do not fit into an int
+
+        // Sort the blocks with insertion sort (stable)
+        for (long from = 0; from < length; from += inPlaceBlockSize) {
+            InsertionSort.insertionSort(array, (int) from, (int) Math.min(from + inPlaceBlockSize, length) - 1);
+        }
+
+        // Merge [from, mid) and [mid, to) of doubling width
+        for (long width = inPlaceBlockSize; width < length; width *= 2) {
+            for (long from = 0; from < length - width; from += 2 * width) {
+                inPlaceMerge(array, (int) from, (int) (from + width), (int) Math.min(from + 2 * width, length), buffer);
+            }
+        }
+    }
+
+    // Merges the sorted ranges array[from, mid) and array[mid, to) in place
+    private static void inPlaceMerge(int[] array, int from, int mid, int to, int[] buffer) {
+        SortMetrics.enter();
+
+        while (from < mid && mid < to) {
+            // Already in order - nothing to merge
+            if (SortMetrics.compared(array[mid - 1] <= array[mid])) {
+                break;
+            }
+
+            if (mid - from <= buffer.length) {
+                mergeLeftBuffered(array, from, mid, to, buffer);
+                break;
+            }
+            if (to - mid <= buffer.length) {
+                mergeRightBuffered(array, from, mid, to, buffer);
+                break;
+            }
+
+            // Split: the middle element of the longer range and its position in the other range
+            int firstCut;
+            int secondCut;
+            if (mid - from > to - mid) {
+                firstCut = from + (mid - from) / 2;
+                secondCut = lowerBound(array, mid, to, array[firstCut]);
+            } else {
+                secondCut = mid + (to - mid) / 2;
+                firstCut = upperBound(array, from, mid, array[secondCut]);
+            }
+
+            // [firstCut, mid) and [mid, secondCut) swap places
+            rotate(array, firstCut, mid, secondCut, buffer);
+            int newMid = firstCut + (secondCut - mid);
+
+            // Recur on the smaller of the two remaining merges, loop on the bigger one
+            if (newMid - from < to - newMid) {
+                inPlaceMerge(array, from, firstCut, newMid, buffer);
+                from = newMid;
+                mid = secondCut;
+            } else {
+                inPlaceMerge(array, newMid, secondCut, to, buffer);
+                to = newMid;
+                mid = firstCut;
+            }
+        }
+
+        SortMetrics.exit();
+    }
+
+    // The left range fits into the buffer: merge forwards, writing from the front
+    private static void mergeLeftBuffered(int[] array, int from, int mid, int to, int[] buffer) {
+        int leftLength = mid - from;
+        System.arraycopy(array, from, buffer, 0, leftLength);
+        SortMetrics.moved(leftLength);
+
+        int left = 0;
+        int right = mid;
+        int index = from;
+        while (left < leftLength && right < to) {
+            // Stable sort -> if the elements are equal, select the element from the left range (the buffer).
+            if (SortMetrics.compared(buffer[left] <= array[right])) {
+                array[index++] = buffer[left++];
+            } else {
+                array[index++] = array[right++];
+            }
+        }
+
+        // The rest of the right range is already in place
+        System.arraycopy(buffer, left, array, index, leftLength - left);
+        SortMetrics.moved(to - from);
+    }
+
+    // The right range fits into the buffer: merge backwards, writing from the back
+    private static void mergeRightBuffered(int[] array, int from, int mid, int to, int[] buffer) {
+        int rightLength = to - mid;
+        System.arraycopy(array, mid, buffer, 0, rightLength);
+        SortMetrics.moved(rightLength);
+
+        int left = mid - 1;
+        int right = rightLength - 1;
+        int index = to - 1;
+        while (left >= from && right >= 0) {
+            // Stable sort -> if the elements are equal, the element of the right range (the buffer) goes last.
+            if (SortMetrics.compared(array[left] > buffer[right])) {
+                array[index--] = array[left--];
+            } else {
+                array[index--] = buffer[right--];
+            }
+        }
+
+        // The rest of the left range is already in place
+        System.arraycopy(buffer, 0, array, from, right + 1);
+        SortMetrics.moved(to - from);
+    }
+
+    // Exchanges the blocks array[from, mid) and array[mid, to)
+    private static void rotate(int[] array, int from, int mid, int to, int[] buffer) {
+        int leftLength = mid - from;
+        int rightLength = to - mid;
+        if (leftLength == 0 || rightLength == 0) {
+            return;
+        }
+
+        if (leftLength <= buffer.length && leftLength <= rightLength) {
+            System.arraycopy(array, from, buffer, 0, leftLength);
+            System.arraycopy(array, mid, array, from, rightLength);
+            System.arraycopy(buffer, 0, array, from + rightLength, leftLength);
+        } else if (rightLength <= buffer.length) {
+            System.arraycopy(array, mid, buffer, 0, rightLength);
+            System.arraycopy(array, from, array, from + rightLength, leftLength);
+            System.arraycopy(buffer, 0, array, from, rightLength);
+        } else {
+            // (A B) -> reverse both blocks -> (A' B') -> reverse all -> (B A)
+            reverse(array, from, mid);
+            reverse(array, mid, to);
+            reverse(array, from, to);
+        }
+        SortMetrics.moved(2L * (to - from));
+    }
+
+    private static void reverse(int[] array, int from, int to) {
+        for (int i = from, j = to - 1; i < j; ++i, --j) {
+            int temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+    }
+
+    // Index of the first element >= value in array[from, to)
+    private static int lowerBound(int[] array, int from, int to, int value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (SortMetrics.compared(array[mid] < value)) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    // Index of the first element > value in array[from, to)
+    private static int upperBound(int[] array, int from, int to, int value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (SortMetrics.compared(array[mid] <= value)) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+
+    /*
+        Merge sort with a single auxiliary buffer ("ping-pong" merge sort)
+
+        The merge function above allocates a new temporary array on every call and copies the merged elements back one by
+        one, so every element is moved twice on each level. Both can be avoided:
+        - The auxiliary buffer is allocated once (or provided by the caller and reused between calls).
+        - Instead of copying the merged elements back, the roles of the array and the buffer alternate between the levels:
+          one level merges from the array into the buffer, the next one merges from the buffer back into the array.
+        - When one of the merged ranges is exhausted, the rest of the other range is moved with System.arraycopy.
+
+        The buffer must be at least as long as the array. Same time complexity, stability and O(N) space as the versions
+        above, but no allocations apart from the buffer and half of the memory traffic.
+    */
+    // Top-Down (Recursive)
+    public static void bufferedSort(int[] array) {
+        bufferedSort(array, new int[array.length]);
+    }
+
+    public static void bufferedSort(int[] array, int[] buffer) {
+        checkBuffer(array, buffer);
+
+        // Both arrays start with the same content, afterwards every level sorts its halves into the other array.
+        System.arraycopy(array, 0, buffer, 0, array.length);
+        pingPong(buffer, array, 0, array.length - 1);
+    }
+
+    // Sorts source[left, right] into destination[left, right]. Both ranges must hold the same elements when called,
+    // source[left, right] is used as scratch space.
+    private static void pingPong(int[] source, int[] destination, int left, int right) {
+        // Base case: if the size of the array is 1 then the array is trivially sorted (and equal in both arrays)
+        if (right - left < 1) {
+            return;
+        }
+
+        int mid = left + (right - left) / 2;
+
+        // Sort both halves into source (the arrays swap their roles)...
+        pingPong(destination, source, left, mid);
+        pingPong(destination, source, mid + 1, right);
+
+        // ...and merge them into destination
+        mergeRanges(source, left, mid + 1, mid + 1, right + 1, destination, left);
+    }
+
+    // Bottom-Up (Iterative)
+    public static void bufferedIterativeSort(int[] array) {
+        bufferedIterativeSort(array, new int[array.length]);
+    }
+
+    public static void bufferedIterativeSort(int[] array, int[] buffer) {
+        checkBuffer(array, buffer);
+
+        int[] source = array;
+        int[] destination = buffer;
+
+        for (int currentSize = 1; currentSize < array.length; currentSize *= 2) {
+
+            // Merge the two sub-arrays: [i ... i+size-1] and [i+size ... i+2*size-1] of source into destination.
+            // A last sub-array without a pair is just copied.
+            for (int i = 0; i < array.length; i += (2 * currentSize)) {
+                int mid = Math.min(i + currentSize, array.length);
+                int right = Math.min(i + 2 * currentSize, array.length);
+
+                mergeRanges(source, i, mid, mid, right, destination, i);
+            }
+
+            // The merged sub-arrays of this pass are the input of the next one
+            int[] temp = source;
+            source = destination;
+            destination = temp;
+        }
+
+        // After an odd number of passes the result is in the buffer
+        if (source != array) {
+            System.arraycopy(source, 0, array, 0, array.length);
+        }
+    }
+
+    private static void checkBuffer(int[] array, int[] buffer) {
+        if (buffer.length < array.length) {
+            throw new IllegalArgumentException("Buffer length " + buffer.length + " is smaller than array length " + array.length);
+        }
+    }
+
+
+    /*
+        Ping-pong merge sort for long[] and double[]
+
+        The same algorithm as bufferedSort(int[]), specialized for the element type (see QuickSort.introSort(long[])).
+        - double[]: NaNs are moved to the end first and -0.0 is put before 0.0 at the end (see DoubleSortSupport), so the
+          result is in the order of Double.compare. The sort stays stable.
+    */
+    public static void bufferedSort(long[] array) {
+        long[] buffer = array.clone();
+        pingPong(buffer, array, 0, array.length - 1);
+    }
+
+    public static void bufferedSort(double[] array) {
+        int size = DoubleSortSupport.moveNaNsToEnd(array);
+
+        double[] buffer = Arrays.copyOf(array, size);
+        pingPong(buffer, array, 0, size - 1);
+        DoubleSortSupport.placeNegativeZeros(array, 0, size);
+    }
+
+    private static void pingPong(long[] source, long[] destination, int left, int right) {
+        if (right - left < 1) {
+            return;
+        }
+
+        int mid = left + (right - left) / 2;
+
+        pingPong(destination, source, left, mid);
+        pingPong(destination, source, mid + 1, right);
+
+        mergeRanges(source, left, mid + 1, mid + 1, right + 1, destination, left);
+    }
+
+    private static void mergeRanges(long[] source, int firstFrom, int firstTo, int secondFrom, int secondTo,
+                                    long[] destination, int destinationIndex) {
+        while (firstFrom < firstTo && secondFrom < secondTo) {
+            if (source[firstFrom] <= source[secondFrom]) {
+                destination[destinationIndex++] = source[firstFrom++];
+            } else {
+                destination[destinationIndex++] = source[secondFrom++];
+            }
+        }
+
+        System.arraycopy(source, firstFrom, destination, destinationIndex, firstTo - firstFrom);
+        destinationIndex += firstTo - firstFrom;
+        System.arraycopy(source, secondFrom, destination, destinationIndex, secondTo - secondFrom);
+    }
+
+    private static void pingPong(double[] source, double[] destination, int left, int right) {
+        if (right - left < 1) {
+            return;
+        }
+
+        int mid = left + (right - left) / 2;
+
+        pingPong(destination, source, left, mid);
+        pingPong(destination, source, mid + 1, right);
+
+        mergeRanges(source, left, mid + 1, mid + 1, right + 1, destination, left);
+    }
+
+    private static void mergeRanges(double[] source, int firstFrom, int firstTo, int secondFrom, int secondTo,
+                                    double[] destination, int destinationIndex) {
+        while (firstFrom < firstTo && secondFrom < secondTo) {
+            if (source[firstFrom] <= source[secondFrom]) {
+                destination[destinationIndex++] = source[firstFrom++];
+            } else {
+                destination[destinationIndex++] = source[secondFrom++];
+            }
+        }
+
+        System.arraycopy(source, firstFrom, destination, destinationIndex, firstTo - firstFrom);
+        destinationIndex += firstTo - firstFrom;
+        System.arraycopy(source, secondFrom, destination, destinationIndex, secondTo - secondFrom);
+    }
+
+    /*
+        Parallel Merge sort (Fork/Join)
+
+        - The two halves are independent of each other, so they are sorted as two separate tasks of a ForkJoinPool.
+          Ranges under parallelTaskThreshold are sorted sequentially by the ping-pong merge sort.
+        - The array and the buffer alternate their roles between the levels, as in bufferedSort: the array is copied to
+          the buffer once (in parallel), afterwards every level merges its halves from one array into the other, without
+          copying them back.
+        - Splitting only the sorting is not enough: the merge at the top level is a single loop over all N elements, so
+          the last merges would run on one core. The merge is split as well:
+          the output range [0 ... len1+len2) is cut in the middle (position k), and a binary search finds the co-rank of
+          k - how many of the first k merged elements come from the left sub-array (i) and how many from the right one
+          (j = k - i). The two output halves are then produced by two independent merges, which are split again until
+          they are smaller than parallelMergeThreshold.
+        - The co-rank search takes ties from the left sub-array first, exactly like merge does, so the sort stays stable.
+        - On a single core, and for arrays smaller than parallelThreshold (the calibrated cutoff of SortTuning), the
+          array is sorted by bufferedSort. The task granularity parallelTaskThreshold is fixed, as in
+          QuickSort.parallelSort.
+
+        * Time Complexity  O(N logN / P) on P cores
+        * Space Complexity O(N) - one auxiliary array of size N, allocated once
+        * Stable algorithm
+    */
+    private static final int parallelThreshold = SortTuning.parallelThreshold;
+    private static final int parallelTaskThreshold = 1 << 13;
+    private static final int parallelMergeThreshold = 1 << 14;
+
+    public static void parallelSort(int[] array) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        if (array.length < parallelThreshold || array.length <= parallelTaskThreshold || pool.getParallelism() <= 1) {
+            bufferedSort(array);
+            return;
+        }
+
+        // Both arrays start with the same content, afterwards every level sorts its halves into the other array
+        int[] buffer = new int[array.length];
+        pool.invoke(new ParallelCopyTask(array, buffer, 0, array.length));
+        pool.invoke(new ParallelSortTask(buffer, array, 0, array.length - 1));
+    }
+
+    // Sorts source[left, right] into destination[left, right], like pingPong
+    private static class ParallelSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] source;
+        private final int[] destination;
+        private final int left;
+        private final int right;
+
+        ParallelSortTask(int[] source, int[] destination, int left, int right) {
+            this.source = source;
+            this.destination = destination;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        protected void compute() {
+            // Small range - sort it sequentially
+            if (right - left < parallelTaskThreshold) {
+                pingPong(source, destination, left, right);
+                return;
+            }
+
+            // Sort both halves into source in parallel (the arrays swap their roles)...
+            int mid = left + (right - left) / 2;
+            invokeAll(new ParallelSortTask(destination, source, left, mid),
+                    new ParallelSortTask(destination, source, mid + 1, right));
+
+            // ...and merge them into destination
+            new ParallelMergeTask(source, left, mid + 1, mid + 1, right + 1, destination, left).invoke();
+        }
+    }
+
+    // Copies source[from, to) to destination[from, to)
+    private static class ParallelCopyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] source;
+        private final int[] destination;
+        private final int from;
+        private final int to;
+
+        ParallelCopyTask(int[] source, int[] destination, int from, int to) {
+            this.source = source;
+            this.destination = destination;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < parallelMergeThreshold) {
+                System.arraycopy(source, from, destination, from, to - from);
+                return;
+            }
+
+            int mid = from + (to - from) / 2;
+            invokeAll(new ParallelCopyTask(source, destination, from, mid),
+                    new ParallelCopyTask(source, destination, mid, to));
+        }
+    }
+
+    // Merges the sorted ranges source[firstFrom, firstTo) and source[secondFrom, secondTo) into destination[destinationFrom ...]
+    private static class ParallelMergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] source;
+        private final int firstFrom;
+        private final int firstTo;
+        private final int secondFrom;
+        private final int secondTo;
+        private final int[] destination;
+        private final int destinationFrom;
+
+        ParallelMergeTask(int[] source, int firstFrom, int firstTo, int secondFrom, int secondTo,
+                          int[] destination, int destinationFrom) {
+            this.source = source;
+            this.firstFrom = firstFrom;
+            this.firstTo = firstTo;
+            this.secondFrom = secondFrom;
+            this.secondTo = secondTo;
+            this.destination = destination;
+            this.destinationFrom = destinationFrom;
+        }
+
+        @Override
+        protected void compute() {
+            int firstLength = firstTo - firstFrom;
+            int secondLength = secondTo - secondFrom;
+
+            if (firstLength + secondLength < parallelMergeThreshold) {
+                mergeRanges(source, firstFrom, firstTo, secondFrom, secondTo, destination, destinationFrom);
+                return;
+            }
+
+            // Split the output in the middle: the first k merged elements are source[firstFrom, firstSplit) and
+            // source[secondFrom, secondSplit)
+            int k = (firstLength + secondLength) / 2;
+            int firstSplit = firstFrom + coRank(source, firstFrom, firstLength, secondFrom, secondLength, k);
+            int secondSplit = secondFrom + (k - (firstSplit - firstFrom));
+
+            invokeAll(new ParallelMergeTask(source, firstFrom, firstSplit, secondFrom, secondSplit,
+                            destination, destinationFrom),
+                    new ParallelMergeTask(source, firstSplit, firstTo, secondSplit, secondTo,
+                            destination, destinationFrom + k));
+        }
+    }
+
+    /*
+        Co-rank: returns how many of the first k elements of the (stable) merge of the sorted ranges
+        array[firstFrom, firstFrom + firstLength) and array[secondFrom, secondFrom + secondLength) come from the first range.
+
+        For i elements of the first range and j = k - i elements of the second range, i is too small when the next
+        element of the first range, array[firstFrom + i], is smaller than or equal to (ties go to the first range) the last
+        taken element of the second range, array[secondFrom + j - 1]. Binary search for the smallest i that is not too small.
+    */
+    private static int coRank(int[] array, int firstFrom, int firstLength, int secondFrom, int secondLength, int k) {
+        int low = Math.max(0, k - secondLength);
+        int high = Math.min(k, firstLength);
+
+        while (low < high) {
+            int i = (low + high) >>> 1;
+            int j = k - i;
+
+            if (array[firstFrom + i] <= array[secondFrom + j - 1]) {
+                low = i + 1;
+            } else {
+                high = i;
+            }
+        }
+
+        return low;
+    }
+
+    // Same as merge, but merges two arbitrary sorted ranges [from, to) of source into destination.
+    private static void mergeRanges(int[] source, int firstFrom, int firstTo, int secondFrom, int secondTo,
+                                    int[] destination, int destinationIndex) {
+        mergeRanges(source, firstFrom, firstTo, source, secondFrom, secondTo, destination, destinationIndex);
+    }
+
+    // Merges the sorted ranges first[firstFrom, firstTo) and second[secondFrom, secondTo) of two (possibly different)
+    // arrays into destination.
+    static void mergeRanges(int[] first, int firstFrom, int firstTo, int[] second, int secondFrom, int secondTo,
+                            int[] destination, int destinationIndex) {
+        while (firstFrom < firstTo && secondFrom < secondTo) {
+            // Stable sort -> if current elements of both ranges are equal, select the element from the first range.
+            if (first[firstFrom] <= second[secondFrom]) {
+                destination[destinationIndex++] = first[firstFrom++];
+            } else {
+                destination[destinationIndex++] = second[secondFrom++];
+            }
+        }
+
+        // Copy the remaining elements of the range that is not exhausted
+        System.arraycopy(first, firstFrom, destination, destinationIndex, firstTo - firstFrom);
+        destinationIndex += firstTo - firstFrom;
+        System.arraycopy(second, secondFrom, destination, destinationIndex, secondTo - secondFrom);
+    }
+
 }
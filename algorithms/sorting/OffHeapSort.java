@@ -0,0 +1,306 @@
+package algorithms.sorting;
+
+import java.nio.ByteBuffer;
+
+public class OffHeapSort {
+    /*
+        Sorting data in place inside a ByteBuffer (usually a direct, off-heap buffer), without copying it to an array on
+        the heap first.
+
+        The buffer holds count = remaining() / stride records, starting at its position. Every record is stride bytes
+        long and starts with its key: an int (keyBytes = 4) or a long (keyBytes = 8), read in the byte order of the buffer.
+        When stride is bigger than the key, the remaining bytes of the record are its payload, and they move together
+        with the key. The position, limit and byte order of the buffer are not changed.
+
+        - introSort: Introsort as in QuickSort.introSort - median-of-three Lomuto partitioning, heap sort after 2*log2(N)
+          levels, insertion sort for small ranges. In place, O(logN) stack.
+        - mergeSort: the ping-pong merge sort of MergeSort.bufferedSort. Stable, needs one scratch buffer of the same size.
+        - countingSort: the stable CountingSort.sort - count, prefix sum, scatter into a scratch buffer and copy back.
+          Falls back to mergeSort unless CountingSort.boundedSort would count: the range of the keys is at most
+          maxRangePerElement * N and the count array (on the heap) fits into the memory budget (64 MB by default).
+        threshold and maxRangePerElement are the calibrated cutoffs of SortTuning, the same as for the int[] sorts.
+        The scratch buffers are direct if the sorted buffer is direct, so nothing is allocated on the heap except the
+        count array.
+
+        (The Foreign Function & Memory API - MemorySegment - is not available on the Java 17 this project targets, so the
+        sorts take ByteBuffers, which limits one sorted region to 2 GB. A MemorySegment can be sorted through
+        segment.asByteBuffer().)
+    */
+    private static final int threshold = SortTuning.insertionThreshold;
+
+    public static void introSort(ByteBuffer buffer, int keyBytes, int stride) {
+        Records records = new Records(buffer, keyBytes, stride);
+        if (records.count < 2) {
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(records.count));
+        introRecursion(records, 0, records.count - 1, depthLimit);
+    }
+
+    private static void introRecursion(Records records, int leftIndex, int rightIndex, int depthLimit) {
+
+        while (rightIndex - leftIndex >= threshold) {
+
+            // Too many bad partitions - fall back to heap sort for this range
+            if (depthLimit == 0) {
+                heapSort(records, leftIndex, rightIndex);
+                return;
+            }
+            --depthLimit;
+
+            // Partition the range into two parts around the median-of-three pivot
+            int partitionIndex = partition(records, leftIndex, rightIndex);
+
+            // Tail call optimization – recur on the smaller sub-range
+            if (partitionIndex - leftIndex < rightIndex - partitionIndex) {
+                introRecursion(records, leftIndex, partitionIndex - 1, depthLimit);
+                leftIndex = partitionIndex + 1;
+            } else {
+                introRecursion(records, partitionIndex + 1, rightIndex, depthLimit);
+                rightIndex = partitionIndex - 1;
+            }
+        }
+
+        insertionSort(records, leftIndex, rightIndex);
+    }
+
+    // Lomuto partitioning around the median of the first, middle and last key (moved to rightIndex)
+    private static int partition(Records records, int leftIndex, int rightIndex) {
+        int middleIndex = leftIndex + (rightIndex - leftIndex) / 2;
+        if (records.key(leftIndex) > records.key(middleIndex)) {
+            records.swap(leftIndex, middleIndex);
+        }
+        if (records.key(leftIndex) > records.key(rightIndex)) {
+            records.swap(leftIndex, rightIndex);
+        }
+        if (records.key(rightIndex) > records.key(middleIndex)) {
+            records.swap(rightIndex, middleIndex);
+        }
+
+        long pivot = records.key(rightIndex);
+        int partitionIndex = leftIndex;
+
+        for (int i = leftIndex; i < rightIndex; ++i) {
+            if (records.key(i) <= pivot) {
+                records.swap(i, partitionIndex);
+                ++partitionIndex;
+            }
+        }
+        records.swap(partitionIndex, rightIndex);
+
+        return partitionIndex;
+    }
+
+    // Records can not be held in a local variable, so the element is moved to its place by adjacent swaps
+    private static void insertionSort(Records records, int leftIndex, int rightIndex) {
+        for (int i = leftIndex + 1; i <= rightIndex; ++i) {
+            long currentKey = records.key(i);
+
+            for (int j = i; j > leftIndex && currentKey < records.key(j - 1); --j) {
+                records.swap(j, j - 1);
+            }
+        }
+    }
+
+    private static void heapSort(Records records, int leftIndex, int rightIndex) {
+        int size = rightIndex - leftIndex + 1;
+
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDown(records, leftIndex, i, size);
+        }
+
+        for (int heapSize = size - 1; heapSize > 0; --heapSize) {
+            records.swap(leftIndex, leftIndex + heapSize);
+            siftDown(records, leftIndex, 0, heapSize);
+        }
+    }
+
+    private static void siftDown(Records records, int offset, int i, int heapSize) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                return;
+            }
+
+            // Pick the bigger child
+            if (child + 1 < heapSize && records.key(offset + child + 1) > records.key(offset + child)) {
+                ++child;
+            }
+            if (records.key(offset + i) >= records.key(offset + child)) {
+                return;
+            }
+
+            records.swap(offset + i, offset + child);
+            i = child;
+        }
+    }
+
+
+    public static void mergeSort(ByteBuffer buffer, int keyBytes, int stride) {
+        Records records = new Records(buffer, keyBytes, stride);
+        if (records.count < 2) {
+            return;
+        }
+
+        // Both buffers start with the same content, afterwards every level sorts its halves into the other one
+        Records scratch = records.scratchCopy();
+        pingPong(scratch, records, 0, records.count - 1);
+    }
+
+    // Sorts source[left, right] into destination[left, right], see MergeSort.bufferedSort
+    private static void pingPong(Records source, Records destination, int left, int right) {
+        if (right - left < 1) {
+            return;
+        }
+
+        int mid = left + (right - left) / 2;
+
+        pingPong(destination, source, left, mid);
+        pingPong(destination, source, mid + 1, right);
+
+        // Merge source[left, mid] and source[mid + 1, right] into destination
+        int first = left;
+        int second = mid + 1;
+        int index = left;
+        while (first <= mid && second <= right) {
+            // Stable sort -> if the keys are equal, select the record from the left range.
+            if (source.key(first) <= source.key(second)) {
+                source.copyTo(first++, destination, index++, 1);
+            } else {
+                source.copyTo(second++, destination, index++, 1);
+            }
+        }
+
+        // Copy the rest of the range that is not exhausted
+        source.copyTo(first, destination, index, mid + 1 - first);
+        index += mid + 1 - first;
+        source.copyTo(second, destination, index, right + 1 - second);
+    }
+
+
+    public static void countingSort(ByteBuffer buffer, int keyBytes, int stride) {
+        countingSort(buffer, keyBytes, stride, CountingSort.defaultMemoryBudget);
+    }
+
+    // memoryBudget limits the count array, the scratch buffer is off the heap (and mergeSort needs it as well)
+    public static void countingSort(ByteBuffer buffer, int keyBytes, int stride, long memoryBudget) {
+        Records records = new Records(buffer, keyBytes, stride);
+        if (records.count < 2) {
+            return;
+        }
+
+        // min and max in one scan
+        long min = records.key(0);
+        long max = min;
+        for (int i = 1; i < records.count; ++i) {
+            long key = records.key(i);
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+
+        // max - min can overflow for long keys - then the range is negative (or 0), which countingFits rejects
+        long range = max - min + 1;
+        if (!CountingSort.countingFits(range, records.count, 0, memoryBudget)) {
+            mergeSort(buffer, keyBytes, stride);
+            return;
+        }
+
+        // Counts the number of times each key occurs
+        int[] count = new int[(int) range];
+        for (int i = 0; i < records.count; ++i) {
+            ++count[(int) (records.key(i) - min)];
+        }
+
+        // Prefix sum - count[k] is the end of the position range of key k
+        for (int i = 1; i < count.length; ++i) {
+            count[i] += count[i - 1];
+        }
+
+        // Loop over the records in reverse order, moving each record into it's sorted position in the scratch buffer
+        Records scratch = records.scratch();
+        for (int i = records.count - 1; i >= 0; --i) {
+            int position = (int) (records.key(i) - min);
+            --count[position];
+            records.copyTo(i, scratch, count[position], 1);
+        }
+
+        scratch.copyTo(0, records, 0, records.count);
+    }
+
+
+    // View of the records in a buffer: record i starts at byte base + i * stride
+    private static final class Records {
+        private final ByteBuffer buffer;
+        private final int base;
+        private final int stride;
+        private final boolean longKeys;
+        private final int count;
+
+        Records(ByteBuffer buffer, int keyBytes, int stride) {
+            if (keyBytes != Integer.BYTES && keyBytes != Long.BYTES) {
+                throw new IllegalArgumentException("Key must be an int (4 bytes) or a long (8 bytes): " + keyBytes);
+            }
+            if (stride < keyBytes) {
+                throw new IllegalArgumentException("Stride " + stride + " is smaller than the key " + keyBytes);
+            }
+            if (buffer.remaining() % stride != 0) {
+                throw new IllegalArgumentException("Buffer size " + buffer.remaining() + " is not a multiple of stride " + stride);
+            }
+
+            this.buffer = buffer;
+            this.base = buffer.position();
+            this.stride = stride;
+            this.longKeys = keyBytes == Long.BYTES;
+            this.count = buffer.remaining() / stride;
+        }
+
+        long key(int i) {
+            int offset = base + i * stride;
+            return longKeys ? buffer.getLong(offset) : buffer.getInt(offset);
+        }
+
+        void swap(int i, int j) {
+            int first = base + i * stride;
+            int second = base + j * stride;
+
+            // Move the record 8 bytes at a time, the last (stride % 8) bytes one by one
+            int b = 0;
+            for (; b + Long.BYTES <= stride; b += Long.BYTES) {
+                long temp = buffer.getLong(first + b);
+                buffer.putLong(first + b, buffer.getLong(second + b));
+                buffer.putLong(second + b, temp);
+            }
+            for (; b < stride; ++b) {
+                byte temp = buffer.get(first + b);
+                buffer.put(first + b, buffer.get(second + b));
+                buffer.put(second + b, temp);
+            }
+        }
+
+        // Copies records [from, from + length) to destination [to, to + length)
+        void copyTo(int from, Records destination, int to, int length) {
+            if (length == 1 && stride == Integer.BYTES) {
+                destination.buffer.putInt(destination.base + to * stride, buffer.getInt(base + from * stride));
+            } else if (length == 1 && stride == Long.BYTES) {
+                destination.buffer.putLong(destination.base + to * stride, buffer.getLong(base + from * stride));
+            } else if (length > 0) {
+                destination.buffer.put(destination.base + to * stride, buffer, base + from * stride, length * stride);
+            }
+        }
+
+        // Empty scratch buffer for the same number of records, in the same byte order
+        Records scratch() {
+            int bytes = count * stride;
+            ByteBuffer scratch = buffer.isDirect() ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+            scratch.order(buffer.order());
+            return new Records(scratch, longKeys ? Long.BYTES : Integer.BYTES, stride);
+        }
+
+        Records scratchCopy() {
+            Records scratch = scratch();
+            copyTo(0, scratch, 0, count);
+            return scratch;
+        }
+    }
+}
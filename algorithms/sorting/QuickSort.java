@@ -1,5 +1,11 @@
 package algorithms.sorting;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
 public class QuickSort {
     /*
         Quicksort is a Divide-and-Conquer algorithm.
@@ -59,6 +65,7 @@ public class QuickSort {
         if (leftIndex >= rightIndex) {
             return;
         }
+        SortMetrics.enter();
 
         // Partition the array using Lomuto Partitioning into two parts around the pivot
         int partitionIndex = partition(array, leftIndex, rightIndex);
@@ -66,6 +73,7 @@ public class QuickSort {
         // Recursively sort the left and right partitioned sub-arrays
         recursion(array, leftIndex, partitionIndex - 1);
         recursion(array, partitionIndex + 1, rightIndex);
+        SortMetrics.exit();
     }
 
     /*
@@ -74,7 +82,7 @@ public class QuickSort {
         This scheme is more compact and easy to understand, it is frequently used in introductory material, although it
         is less efficient than Hoare's original scheme e.g., when all elements are equal.
     */
-    private static int partition(int[] array, int leftIndex, int rightIndex) {
+    static int partition(int[] array, int leftIndex, int rightIndex) {
 
         // We can use median-of-three method to choose pivot (and swap it with the last element) as optimization.
         //getPivotAsMedianOfThree(array, leftIndex, rightIndex);
@@ -86,7 +94,7 @@ public class QuickSort {
 
         // All elements lesser or equal to the pivot are pushed to the left of the partition index.
         for (int i = leftIndex; i < rightIndex; ++i) {
-            if (array[i] <= pivot) {
+            if (SortMetrics.compared(array[i] <= pivot)) {
                 swap(array, i, partitionIndex);
                 ++partitionIndex;
             }
@@ -94,6 +102,7 @@ public class QuickSort {
 
         // Finally, place pivot at its correct position by swapping array[partitionIndex] and the pivot (array[rightIndex]).
         swap(array, partitionIndex, rightIndex);
+        SortMetrics.partitioned(partitionIndex - leftIndex, rightIndex - partitionIndex);
 
         // Return the position of the pivot
         return partitionIndex;
@@ -104,6 +113,7 @@ public class QuickSort {
         if (leftIndex >= rightIndex) {
             return;
         }
+        SortMetrics.enter();
 
         // Partition the array using Hoare Partitioning into two parts around the pivot
         int partitionIndex = partitionHoare(array, leftIndex, rightIndex);
@@ -111,6 +121,7 @@ public class QuickSort {
         // Recursively sort the left and right partitioned sub-arrays
         recursionWithHoarePartition(array, leftIndex, partitionIndex);
         recursionWithHoarePartition(array, partitionIndex + 1, rightIndex);
+        SortMetrics.exit();
     }
 
     /*
@@ -140,16 +151,17 @@ public class QuickSort {
 
         while (true) {
             // Find leftmost element greater than pivot.
-            while (array[leftPointer] < pivot) {
+            while (SortMetrics.compared(array[leftPointer] < pivot)) {
                 ++leftPointer;
             }
             // Find rightmost element smaller than or equal to pivot.
-            while (array[rightPointer] > pivot) {
+            while (SortMetrics.compared(array[rightPointer] > pivot)) {
                 --rightPointer;
             }
 
             //  Returns the index of the last element of the less-than-pivot side
             if (leftPointer >= rightPointer) {
+                SortMetrics.partitioned(rightPointer - leftIndex + 1, rightIndex - rightPointer);
                 return rightPointer;
             }
 
@@ -158,6 +170,124 @@ public class QuickSort {
             --rightPointer;
         }
     }
+
+    /*
+        Block Partitioning (BlockQuicksort, Edelkamp and Weiss)
+        On random data, the comparison in the Lomuto loop and the pointer loops of Hoare's scheme go either way with
+        about the same probability, so the CPU mispredicts about half of these branches, and every misprediction
+        flushes its pipeline. Block partitioning separates the comparisons from the swaps:
+        - It scans a block of blockSize elements from the left end and writes the offsets of the elements greater than
+          the pivot (the misplaced ones) into a buffer, and the same for the right end and the elements smaller than or
+          equal to the pivot. The scan has no branch that depends on the data: the offset is always written, and the
+          result of the comparison (0 or 1) only moves the end of the buffer.
+        - Then the misplaced elements of both buffers are swapped pairwise. A block is refilled when its buffer is empty.
+        - The last elements (fewer than two blocks) are partitioned with the Lomuto loop, written without the branch as
+          well: the swap is always done, and only the partition index depends on the comparison.
+
+        Same contract as the Lomuto partition - pivot array[rightIndex] is moved to the returned index, smaller or equal
+        elements end up left of it, bigger elements right of it - so it can replace it in every driver (see
+        PartitionScheme). The comparisons and the swaps are the same as in Hoare's scheme, the extra cost is writing the
+        offsets; it pays off for random data, while on presorted data the branches are predicted well anyway.
+    */
+    private static final int blockSize = 64;
+
+    private static int blockPartition(int[] array, int leftIndex, int rightIndex) {
+        int pivot = array[rightIndex];
+
+        // Unscanned elements are [left ... right]: elements before left are <= pivot, elements after right are > pivot
+        int left = leftIndex;
+        int right = rightIndex - 1;
+
+        if (right - left + 1 >= 2 * blockSize) {
+            int[] offsetsLeft = new int[blockSize];
+            int[] offsetsRight = new int[blockSize];
+            int startLeft = 0;
+            int startRight = 0;
+            int numLeft = 0;
+            int numRight = 0;
+
+            while (right - left + 1 >= 2 * blockSize) {
+                // Fill the empty buffers: offsets of the bigger elements of the left block, and of the smaller or equal
+                // elements of the right block
+                if (numLeft == 0) {
+                    startLeft = 0;
+                    for (int i = 0; i < blockSize; ++i) {
+                        offsetsLeft[numLeft] = i;
+                        numLeft += SortMetrics.compared(array[left + i] > pivot) ? 1 : 0;
+                    }
+                }
+                if (numRight == 0) {
+                    startRight = 0;
+                    for (int i = 0; i < blockSize; ++i) {
+                        offsetsRight[numRight] = i;
+                        numRight += SortMetrics.compared(array[right - i] <= pivot) ? 1 : 0;
+                    }
+                }
+
+                // Swap the misplaced elements pairwise
+                int count = Math.min(numLeft, numRight);
+                for (int j = 0; j < count; ++j) {
+                    swap(array, left + offsetsLeft[startLeft + j], right - offsetsRight[startRight + j]);
+                }
+                numLeft -= count;
+                numRight -= count;
+                startLeft += count;
+                startRight += count;
+
+                // A block is done when all its misplaced elements are swapped
+                if (numLeft == 0) {
+                    left += blockSize;
+                }
+                if (numRight == 0) {
+                    right -= blockSize;
+                }
+            }
+        }
+
+        // The rest, including a block whose buffer is not empty yet: branch-free Lomuto loop over [left ... right]
+        int partitionIndex = left;
+        for (int i = left; i <= right; ++i) {
+            int element = array[i];
+            array[i] = array[partitionIndex];
+            array[partitionIndex] = element;
+            partitionIndex += SortMetrics.compared(element <= pivot) ? 1 : 0;
+        }
+
+        // Place pivot at its correct position
+        swap(array, partitionIndex, rightIndex);
+        SortMetrics.partitioned(partitionIndex - leftIndex, rightIndex - partitionIndex);
+
+        return partitionIndex;
+    }
+
+    /*
+        The partition scheme of optimizedSort and hybridSort:
+        - LOMUTO: partition (the default) - simple, but one swap for every smaller element and a mispredicted branch for
+          about every second element of random data.
+        - HOARE: partitionHoare - fewer swaps, still mispredicted branches in the pointer loops.
+        - BLOCK: blockPartition - the comparisons are done without data-dependent branches.
+        LOMUTO and BLOCK pivot on the rightmost element, HOARE on the leftmost one.
+    */
+    public enum PartitionScheme {
+        LOMUTO, HOARE, BLOCK
+    }
+
+    // Partitions with the given scheme and returns the range between the two parts, packed as in threeWayPartition:
+    // the pivot [partitionIndex ... partitionIndex] for LOMUTO and BLOCK, empty (firstEqual = lastEqual + 1) for HOARE.
+    private static long partition(int[] array, int leftIndex, int rightIndex, PartitionScheme scheme) {
+        int partitionIndex;
+        switch (scheme) {
+            case HOARE:
+                partitionIndex = partitionHoare(array, leftIndex, rightIndex);
+                return ((long) (partitionIndex + 1) << 32) | partitionIndex;
+            case BLOCK:
+                partitionIndex = blockPartition(array, leftIndex, rightIndex);
+                break;
+            default:
+                partitionIndex = partition(array, leftIndex, rightIndex);
+        }
+        return ((long) partitionIndex << 32) | partitionIndex;
+    }
     
 
     /*
@@ -168,24 +298,33 @@ public class QuickSort {
 
     */
     public static void optimizedSort(int[] array) {
-        optimizedTailRecursion(array, 0, array.length - 1);
+        optimizedSort(array, PartitionScheme.LOMUTO);
+    }
+
+    public static void optimizedSort(int[] array, PartitionScheme scheme) {
+        optimizedTailRecursion(array, 0, array.length - 1, scheme);
     }
 
-    private static void optimizedTailRecursion(int[] array, int leftIndex, int rightIndex) {
+    private static void optimizedTailRecursion(int[] array, int leftIndex, int rightIndex, PartitionScheme scheme) {
+        SortMetrics.enter();
 
         while (leftIndex < rightIndex) {
             // Partition the array into two parts around the pivot
-            int partitionIndex = partition(array, leftIndex, rightIndex);
+            long pivotRange = partition(array, leftIndex, rightIndex, scheme);
+            int leftEnd = firstEqual(pivotRange) - 1;
+            int rightStart = lastEqual(pivotRange) + 1;
 
             // If left part is smaller, then we make recursive call for left part. Else for the right part.
-            if (partitionIndex - leftIndex < rightIndex - partitionIndex) {
-                optimizedTailRecursion(array, leftIndex, partitionIndex - 1);
-                leftIndex = partitionIndex + 1;
+            if (leftEnd - leftIndex < rightIndex - rightStart) {
+                optimizedTailRecursion(array, leftIndex, leftEnd, scheme);
+                leftIndex = rightStart;
             } else {
-                optimizedTailRecursion(array, partitionIndex + 1, rightIndex);
-                rightIndex = partitionIndex - 1;
+                optimizedTailRecursion(array, rightStart, rightIndex, scheme);
+                rightIndex = leftEnd;
             }
         }
+
+        SortMetrics.exit();
     }
 
     /*
@@ -197,14 +336,20 @@ public class QuickSort {
 
        If the array size is greater than the threshold value (10), then the Quicksort function is called for that portion
        of the array. Else, Insertion sort is called.
+       The threshold can be calibrated for the machine (see SortTuning), 10 is the default.
     */
-    private static final int threshold = 10;
+    private static final int threshold = SortTuning.insertionThreshold;
 
     public static void hybridSort(int[] array) {
-        hybridRecursion(array, 0, array.length - 1);
+        hybridSort(array, PartitionScheme.LOMUTO);
     }
 
-    private static void hybridRecursion(int[] array, int leftIndex, int rightIndex) {
+    public static void hybridSort(int[] array, PartitionScheme scheme) {
+        hybridRecursion(array, 0, array.length - 1, scheme);
+    }
+
+    private static void hybridRecursion(int[] array, int leftIndex, int rightIndex, PartitionScheme scheme) {
+        SortMetrics.enter();
 
         while (leftIndex < rightIndex) {
 
@@ -214,18 +359,22 @@ public class QuickSort {
                 break;
             } else {
                 // Partition the array into two parts around the pivot
-                int partitionIndex = partition(array, leftIndex, rightIndex);
+                long pivotRange = partition(array, leftIndex, rightIndex, scheme);
+                int leftEnd = firstEqual(pivotRange) - 1;
+                int rightStart = lastEqual(pivotRange) + 1;
 
                 // Tail call optimization – recur on the smaller sub-array
-                if (partitionIndex - leftIndex < rightIndex - partitionIndex) {
-                    optimizedTailRecursion(array, leftIndex, partitionIndex - 1);
-                    leftIndex = partitionIndex + 1;
+                if (leftEnd - leftIndex < rightIndex - rightStart) {
+                    optimizedTailRecursion(array, leftIndex, leftEnd, scheme);
+                    leftIndex = rightStart;
                 } else {
-                    optimizedTailRecursion(array, partitionIndex + 1, rightIndex);
-                    rightIndex = partitionIndex - 1;
+                    optimizedTailRecursion(array, rightStart, rightIndex, scheme);
+                    rightIndex = leftEnd;
                 }
             }
         }
+
+        SortMetrics.exit();
     }
 
     /*
@@ -242,8 +391,14 @@ public class QuickSort {
     }
 
     private static void iterative(int[] array, int leftIndex, int rightIndex) {
+        // Base case (the stack below has room for two indexes only if there are at least two elements)
+        if (leftIndex >= rightIndex) {
+            return;
+        }
+
         // Create an auxiliary stack
         int[] stack = new int[rightIndex - leftIndex + 1];
+        SortMetrics.allocated(4L * stack.length);
 
         // Initialize top of stack
         int top = -1;
@@ -272,6 +427,7 @@ public class QuickSort {
                 stack[++top] = partitionIndex + 1;
                 stack[++top] = rightIndex;
             }
+            SortMetrics.stackDepth(top / 2 + 1);
         }
     }
 
@@ -312,8 +468,19 @@ public class QuickSort {
         if (leftIndex >= rightIndex) {
             return;
         }
+        SortMetrics.enter();
 
         // Partition the array into three parts around the pivot
+        long equalRange = threeWayPartition(array, leftIndex, rightIndex);
+
+        // Recursively sort the left and right partitioned sub-arrays
+        threeWayRecursion(array, leftIndex, firstEqual(equalRange) - 1);
+        threeWayRecursion(array, lastEqual(equalRange) + 1, rightIndex);
+        SortMetrics.exit();
+    }
+
+    // Returns the range [firstEqual ... lastEqual] of the elements equal to the pivot, packed into a long
+    private static long threeWayPartition(int[] array, int leftIndex, int rightIndex) {
         // Select the rightmost element as pivot (this could very well be another element).
         int pivot = array[rightIndex];
 
@@ -321,10 +488,10 @@ public class QuickSort {
         int greaterIndex = rightIndex - 1;
 
         for (int i = smallerIndex; i <= greaterIndex; ++i) {
-            if (array[i] < pivot) {
+            if (SortMetrics.compared(array[i] < pivot)) {
                 swap(array, i, smallerIndex);
                 ++smallerIndex;
-            } else if (array[i] > pivot) {
+            } else if (SortMetrics.compared(array[i] > pivot)) {
                 swap(array, i, greaterIndex);
                 --greaterIndex;
                 --i; // unknown elements is in position i, and we should compare it with pivot
@@ -333,11 +500,965 @@ public class QuickSort {
 
         // Finally, place pivot at its correct position by swapping array[greaterIndex - 1] and the pivot (array[right]).
         swap(array, ++greaterIndex, rightIndex);
+        SortMetrics.partitioned(smallerIndex - leftIndex, rightIndex - greaterIndex);
 
+        return ((long) smallerIndex << 32) | greaterIndex;
+    }
 
-        // Recursively sort the left and right partitioned sub-arrays
-        threeWayRecursion(array, leftIndex, --smallerIndex);
-        threeWayRecursion(array, ++greaterIndex, rightIndex);
+    private static int firstEqual(long equalRange) {
+        return (int) (equalRange >>> 32);
+    }
+
+    private static int lastEqual(long equalRange) {
+        return (int) equalRange;
+    }
+
+
+    /*
+       Introsort (Introspective sort)
+
+       Every variant above goes quadratic on already sorted and reverse-sorted input (the rightmost element is the worst
+       possible pivot there). Introsort keeps the speed of quicksort on average and bounds the worst case:
+       - The pivot is chosen with the median-of-three method.
+       - The recursion depth is tracked. Once it exceeds 2*log2(N), the partitioning is clearly going badly, and the
+         current range is sorted with heap sort instead, which is O(N logN) in the worst case.
+       - Ranges smaller than the threshold are finished with insertion sort, as in the hybrid quicksort.
+
+       * Time Complexity  O(N logN) - Worst-case, Average and Best-case
+       * Space Complexity O(logN) - recursion on the smaller side only
+       * Not Stable algorithm
+    */
+    public static void introSort(int[] array) {
+        introSort(array, 0, array.length - 1);
+    }
+
+    // Sorts array[leftIndex ... rightIndex]
+    static void introSort(int[] array, int leftIndex, int rightIndex) {
+        if (rightIndex - leftIndex < 1) {
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(rightIndex - leftIndex + 1));
+        introRecursion(array, leftIndex, rightIndex, depthLimit);
+    }
+
+    private static void introRecursion(int[] array, int leftIndex, int rightIndex, int depthLimit) {
+        SortMetrics.enter();
+
+        while (rightIndex - leftIndex >= threshold) {
+
+            // Too many bad partitions - fall back to heap sort for this range
+            if (depthLimit == 0) {
+                HeapSort.heapSort(array, leftIndex, rightIndex);
+                SortMetrics.exit();
+                return;
+            }
+            --depthLimit;
+
+            // Partition the array into two parts around the median-of-three pivot (with SIMD instructions if available)
+            getPivotAsMedianOfThree(array, leftIndex, rightIndex);
+            int partitionIndex = VectorSupport.enabled
+                    ? VectorScans.partition(array, leftIndex, rightIndex)
+                    : partition(array, leftIndex, rightIndex);
+
+            // Tail call optimization – recur on the smaller sub-array
+            if (partitionIndex - leftIndex < rightIndex - partitionIndex) {
+                introRecursion(array, leftIndex, partitionIndex - 1, depthLimit);
+                leftIndex = partitionIndex + 1;
+            } else {
+                introRecursion(array, partitionIndex + 1, rightIndex, depthLimit);
+                rightIndex = partitionIndex - 1;
+            }
+        }
+
+        InsertionSort.insertionSort(array, leftIndex, rightIndex);
+        SortMetrics.exit();
+    }
+
+
+    /*
+        Introsort for long[] and double[]
+
+        The same algorithm as introSort(int[]), specialized for the element type: the code is repeated for every type
+        (like the overloads of java.util.Arrays.sort), so the comparisons and swaps work directly on the primitive values -
+        no boxing, no Comparator, and every hot loop is compiled for exactly one array type.
+        - double[]: NaNs are moved to the end first and -0.0 is put before 0.0 at the end (see DoubleSortSupport), so the
+          result is in the order of Double.compare.
+    */
+    public static void introSort(long[] array) {
+        if (array.length < 2) {
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(array.length));
+        introRecursion(array, 0, array.length - 1, depthLimit);
+    }
+
+    public static void introSort(double[] array) {
+        int size = DoubleSortSupport.moveNaNsToEnd(array);
+        if (size < 2) {
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(size));
+        introRecursion(array, 0, size - 1, depthLimit);
+        DoubleSortSupport.placeNegativeZeros(array, 0, size);
+    }
+
+    private static void introRecursion(long[] array, int leftIndex, int rightIndex, int depthLimit) {
+
+        while (rightIndex - leftIndex >= threshold) {
+
+            // Too many bad partitions - fall back to heap sort for this range
+            if (depthLimit == 0) {
+                HeapSort.heapSort(array, leftIndex, rightIndex);
+                return;
+            }
+            --depthLimit;
+
+            // Partition the array into two parts around the median-of-three pivot
+            getPivotAsMedianOfThree(array, leftIndex, rightIndex);
+            int partitionIndex = partition(array, leftIndex, rightIndex);
+
+            // Tail call optimization – recur on the smaller sub-array
+            if (partitionIndex - leftIndex < rightIndex - partitionIndex) {
+                introRecursion(array, leftIndex, partitionIndex - 1, depthLimit);
+                leftIndex = partitionIndex + 1;
+            } else {
+                introRecursion(array, partitionIndex + 1, rightIndex, depthLimit);
+                rightIndex = partitionIndex - 1;
+            }
+        }
+
+        InsertionSort.insertionSort(array, leftIndex, rightIndex);
+    }
+
+    private static int partition(long[] array, int leftIndex, int rightIndex) {
+        long pivot = array[rightIndex];
+        int partitionIndex = leftIndex;
+
+        for (int i = leftIndex; i < rightIndex; ++i) {
+            if (array[i] <= pivot) {
+                swap(array, i, partitionIndex);
+                ++partitionIndex;
+            }
+        }
+        swap(array, partitionIndex, rightIndex);
+
+        return partitionIndex;
+    }
+
+    private static void getPivotAsMedianOfThree(long[] array, int leftIndex, int rightIndex) {
+        int middleIndex = leftIndex + (rightIndex - leftIndex) / 2;
+
+        if (array[leftIndex] > array[middleIndex]) {
+            swap(array, leftIndex, middleIndex);
+        }
+        if (array[leftIndex] > array[rightIndex]) {
+            swap(array, leftIndex, rightIndex);
+        }
+        if (array[rightIndex] > array[middleIndex]) {
+            swap(array, rightIndex, middleIndex);
+        }
+    }
+
+    private static void swap(long[] array, int firstIndex, int secondIndex) {
+        long temp = array[firstIndex];
+        array[firstIndex] = array[secondIndex];
+        array[secondIndex] = temp;
+    }
+
+    private static void introRecursion(double[] array, int leftIndex, int rightIndex, int depthLimit) {
+
+        while (rightIndex - leftIndex >= threshold) {
+
+            // Too many bad partitions - fall back to heap sort for this range
+            if (depthLimit == 0) {
+                HeapSort.heapSort(array, leftIndex, rightIndex);
+                return;
+            }
+            --depthLimit;
+
+            // Partition the array into two parts around the median-of-three pivot
+            getPivotAsMedianOfThree(array, leftIndex, rightIndex);
+            int partitionIndex = partition(array, leftIndex, rightIndex);
+
+            // Tail call optimization – recur on the smaller sub-array
+            if (partitionIndex - leftIndex < rightIndex - partitionIndex) {
+                introRecursion(array, leftIndex, partitionIndex - 1, depthLimit);
+                leftIndex = partitionIndex + 1;
+            } else {
+                introRecursion(array, partitionIndex + 1, rightIndex, depthLimit);
+                rightIndex = partitionIndex - 1;
+            }
+        }
+
+        InsertionSort.insertionSort(array, leftIndex, rightIndex);
+    }
+
+    private static int partition(double[] array, int leftIndex, int rightIndex) {
+        double pivot = array[rightIndex];
+        int partitionIndex = leftIndex;
+
+        for (int i = leftIndex; i < rightIndex; ++i) {
+            if (array[i] <= pivot) {
+                swap(array, i, partitionIndex);
+                ++partitionIndex;
+            }
+        }
+        swap(array, partitionIndex, rightIndex);
+
+        return partitionIndex;
+    }
+
+    private static void getPivotAsMedianOfThree(double[] array, int leftIndex, int rightIndex) {
+        int middleIndex = leftIndex + (rightIndex - leftIndex) / 2;
+
+        if (array[leftIndex] > array[middleIndex]) {
+            swap(array, leftIndex, middleIndex);
+        }
+        if (array[leftIndex] > array[rightIndex]) {
+            swap(array, leftIndex, rightIndex);
+        }
+        if (array[rightIndex] > array[middleIndex]) {
+            swap(array, rightIndex, middleIndex);
+        }
+    }
+
+    private static void swap(double[] array, int firstIndex, int secondIndex) {
+        double temp = array[firstIndex];
+        array[firstIndex] = array[secondIndex];
+        array[secondIndex] = temp;
+    }
+
+
+    /*
+       Pattern-defeating QuickSort (pdqsort, Orson Peters)
+
+       Introsort that also adapts to patterns in the input. It keeps quicksort's average speed on random data, runs in
+       linear time on sorted, reverse-sorted and many-equal-keys inputs, and has an O(N logN) worst case.
+       - Hoare-style partitioning around a median-of-three pivot (the "ninther" - median of three medians-of-three - for
+         ranges longer than 128 elements). Elements equal to the pivot go to the right side.
+       - Already partitioned ranges: if the partition did not have to swap anything, the range was probably already
+         sorted. Both sides are then tried with a partial insertion sort, which gives up after 8 element moves. On sorted
+         input the whole sort finishes in O(N).
+       - Bad partitions (one side smaller than 1/8 of the range) break up patterns with a few deterministic swaps in
+         both sides. After log2(N) bad partitions the range is sorted with heap sort instead (like Introsort).
+       - Many equal keys: if the chosen pivot is equal to the element just before the range (the pivot of the parent
+         partition, which is smaller than or equal to every element of the range), the range has many elements equal to
+         it. All elements equal to the pivot are put to the left and skipped at once, as in the 3-way quicksort - this is
+         O(N) for inputs with few distinct values.
+       - Ranges smaller than 24 elements are finished with insertion sort.
+
+       The helper functions below work on half-open ranges [begin ... end).
+
+       * Time Complexity
+          - Best-case O(N) (sorted, reverse-sorted, all-equal input)
+          - Average and Worst-case O(N logN)
+       * Space Complexity O(logN)
+       * Not Stable algorithm
+    */
+    private static final int pdqInsertionThreshold = 24;
+    private static final int pdqNintherThreshold = 128;
+    private static final int pdqPartialInsertionLimit = 8;
+
+    public static void pdqSort(int[] array) {
+        pdqSort(array, 0, array.length - 1);
+    }
+
+    // Sorts array[leftIndex ... rightIndex]
+    static void pdqSort(int[] array, int leftIndex, int rightIndex) {
+        if (rightIndex - leftIndex < 1) {
+            return;
+        }
+
+        int badAllowed = 31 - Integer.numberOfLeadingZeros(rightIndex - leftIndex + 1);
+        pdqLoop(array, leftIndex, rightIndex + 1, badAllowed, true);
+    }
+
+    private static void pdqLoop(int[] array, int begin, int end, int badAllowed, boolean leftmost) {
+        SortMetrics.enter();
+
+        while (true) {
+            int size = end - begin;
+
+            // Small range - finish it with insertion sort
+            if (size < pdqInsertionThreshold) {
+                InsertionSort.insertionSort(array, begin, end - 1);
+                SortMetrics.exit();
+                return;
+            }
+
+            // Choose the pivot as median of 3 or pseudo-median of 9 (ninther) and move it to array[begin]
+            int half = size / 2;
+            if (size > pdqNintherThreshold) {
+                sortThree(array, begin, begin + half, end - 1);
+                sortThree(array, begin + 1, begin + (half - 1), end - 2);
+                sortThree(array, begin + 2, begin + (half + 1), end - 3);
+                sortThree(array, begin + (half - 1), begin + half, begin + (half + 1));
+                swap(array, begin, begin + half);
+            } else {
+                sortThree(array, begin + half, begin, end - 1);
+            }
+
+            // The element before a non-leftmost range is a previous pivot, which is <= every element of the range.
+            // If it is equal to the new pivot, there are many equal elements - put them all to the left and skip them.
+            if (!leftmost && SortMetrics.compared(array[begin - 1] >= array[begin])) {
+                begin = partitionEqualLeft(array, begin, end) + 1;
+                continue;
+            }
+
+            // Partition and check whether the range was already partitioned
+            long partitionResult = partitionRight(array, begin, end);
+            int pivotIndex = (int) partitionResult;
+            boolean alreadyPartitioned = (partitionResult >>> 32) != 0;
+
+            int leftSize = pivotIndex - begin;
+            int rightSize = end - (pivotIndex + 1);
+            boolean highlyUnbalanced = leftSize < size / 8 || rightSize < size / 8;
+            SortMetrics.partitioned(leftSize, rightSize);
+
+            if (highlyUnbalanced) {
+                // Too many bad partitions - fall back to heap sort for this range
+                if (--badAllowed == 0) {
+                    HeapSort.heapSort(array, begin, end - 1);
+                    SortMetrics.exit();
+                    return;
+                }
+
+                // Break up patterns that would cause bad pivots again, by swapping a few elements of both sides
+                if (leftSize >= pdqInsertionThreshold) {
+                    swap(array, begin, begin + leftSize / 4);
+                    swap(array, pivotIndex - 1, pivotIndex - leftSize / 4);
+
+                    if (leftSize > pdqNintherThreshold) {
+                        swap(array, begin + 1, begin + (leftSize / 4 + 1));
+                        swap(array, begin + 2, begin + (leftSize / 4 + 2));
+                        swap(array, pivotIndex - 2, pivotIndex - (leftSize / 4 + 1));
+                        swap(array, pivotIndex - 3, pivotIndex - (leftSize / 4 + 2));
+                    }
+                }
+
+                if (rightSize >= pdqInsertionThreshold) {
+                    swap(array, pivotIndex + 1, pivotIndex + (1 + rightSize / 4));
+                    swap(array, end - 1, end - rightSize / 4);
+
+                    if (rightSize > pdqNintherThreshold) {
+                        swap(array, pivotIndex + 2, pivotIndex + (2 + rightSize / 4));
+                        swap(array, pivotIndex + 3, pivotIndex + (3 + rightSize / 4));
+                        swap(array, end - 2, end - (1 + rightSize / 4));
+                        swap(array, end - 3, end - (2 + rightSize / 4));
+                    }
+                }
+            } else if (alreadyPartitioned
+                    && partialInsertionSort(array, begin, pivotIndex)
+                    && partialInsertionSort(array, pivotIndex + 1, end)) {
+                // Nothing was swapped and both sides turned out to be (nearly) sorted
+                SortMetrics.exit();
+                return;
+            }
+
+            // Recur on the left side, loop on the right side
+            pdqLoop(array, begin, pivotIndex, badAllowed, leftmost);
+            begin = pivotIndex + 1;
+            leftmost = false;
+        }
+    }
+
+    /*
+        Hoare-style partition of [begin ... end) around the pivot array[begin]. Elements smaller than the pivot go to the
+        left, elements bigger than or equal to it go to the right, and the pivot is placed between them.
+        Returns the pivot position in the low 32 bits and, in the high bits, whether the range was already partitioned
+        (no swaps were needed).
+    */
+    private static long partitionRight(int[] array, int begin, int end) {
+        int pivot = array[begin];
+        int first = begin;
+        int last = end;
+
+        // Find the first element >= pivot (the median-of-three guarantees there is one before end)
+        do {
+            ++first;
+        } while (SortMetrics.compared(array[first] < pivot));
+
+        // Find the last element < pivot. If the first element already was >= pivot, nothing guards the search.
+        if (first - 1 == begin) {
+            do {
+                --last;
+            } while (first < last && SortMetrics.compared(array[last] >= pivot));
+        } else {
+            do {
+                --last;
+            } while (SortMetrics.compared(array[last] >= pivot));
+        }
+
+        // If the pointers crossed straight away, no element is on the wrong side
+        boolean alreadyPartitioned = first >= last;
+
+        // Swap the misplaced pairs, the elements found before guard both searches
+        while (first < last) {
+            swap(array, first, last);
+            do {
+                ++first;
+            } while (SortMetrics.compared(array[first] < pivot));
+            do {
+                --last;
+            } while (SortMetrics.compared(array[last] >= pivot));
+        }
+
+        // Place pivot at its correct position
+        int pivotIndex = first - 1;
+        array[begin] = array[pivotIndex];
+        array[pivotIndex] = pivot;
+
+        return ((alreadyPartitioned ? 1L : 0L) << 32) | pivotIndex;
+    }
+
+    /*
+        Partition of [begin ... end) around the pivot array[begin] that puts the elements equal to the pivot to the left.
+        Used when the pivot is known to be the smallest element of the range, so the left side contains only elements
+        equal to the pivot and is already sorted.
+    */
+    private static int partitionEqualLeft(int[] array, int begin, int end) {
+        int pivot = array[begin];
+        int first = begin;
+        int last = end;
+
+        do {
+            --last;
+        } while (SortMetrics.compared(pivot < array[last]));
+
+        if (last + 1 == end) {
+            do {
+                ++first;
+            } while (first < last && SortMetrics.compared(pivot >= array[first]));
+        } else {
+            do {
+                ++first;
+            } while (SortMetrics.compared(pivot >= array[first]));
+        }
+
+        while (first < last) {
+            swap(array, first, last);
+            do {
+                --last;
+            } while (SortMetrics.compared(pivot < array[last]));
+            do {
+                ++first;
+            } while (SortMetrics.compared(pivot >= array[first]));
+        }
+
+        // Place pivot at its correct position
+        array[begin] = array[last];
+        array[last] = pivot;
+
+        return last;
+    }
+
+    // Insertion sort of [begin ... end) that gives up (returns false) once more than pdqPartialInsertionLimit elements were moved
+    private static boolean partialInsertionSort(int[] array, int begin, int end) {
+        int moves = 0;
+
+        for (int i = begin + 1; i < end; ++i) {
+            int currentElement = array[i];
+
+            if (SortMetrics.compared(currentElement < array[i - 1])) {
+                int j = i - 1;
+                do {
+                    array[j + 1] = array[j];
+                    --j;
+                } while (j >= begin && SortMetrics.compared(currentElement < array[j]));
+
+                array[j + 1] = currentElement;
+                moves += i - (j + 1);
+                SortMetrics.moved(i - j);
+            }
+
+            if (moves > pdqPartialInsertionLimit) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Sorts the three elements array[first], array[second] and array[third] (the median ends up in array[second])
+    private static void sortThree(int[] array, int first, int second, int third) {
+        if (SortMetrics.compared(array[second] < array[first])) {
+            swap(array, first, second);
+        }
+        if (SortMetrics.compared(array[third] < array[second])) {
+            swap(array, second, third);
+        }
+        if (SortMetrics.compared(array[second] < array[first])) {
+            swap(array, first, second);
+        }
+    }
+
+
+    /*
+       Quickselect - finding the k-th smallest element without sorting the whole array
+
+       Partitioning puts the pivot at its final sorted position. If that position is k, the pivot is the answer;
+       otherwise only the part that contains position k has to be processed further - there is no need to recurse into
+       the other part. On average the parts shrink geometrically, so the work is N + N/2 + N/4 + ... = O(N).
+       - The 3-way partition is used: all elements equal to the pivot are placed at once, so repeated elements do not
+         slow it down.
+       - Introselect: the pivot is the median-of-three, which can still be bad every time (O(N^2)). After 2*log2(N)
+         partitions the pivot is chosen with the median-of-medians algorithm instead, which always splits off at least
+         30% of the elements and makes the worst case O(N).
+
+       Built on the selection:
+       - select(array, k): places the k-th smallest element (k from 0) at array[k], with smaller or equal elements before
+         it and bigger or equal elements after it, and returns it.
+       - partialSort(array, k): the k smallest elements, sorted, at the beginning of the array. O(N + k logk)
+       - topK(array, k): the k largest elements in descending order (the array is partitioned as a side effect).
+       - multiSelect(array, ranks): several ranks (e.g. percentiles) in one pass - after partitioning, it only recurses
+         into the parts that contain some of the requested ranks. O(N log(number of ranks)).
+
+       * Time Complexity  O(N) - Average and Worst-case (select)
+       * Space Complexity O(1) for select, O(log(number of ranks)) for multiSelect
+    */
+    public static int select(int[] array, int k) {
+        checkRank(array, k);
+
+        introSelect(array, 0, array.length - 1, k);
+        return array[k];
+    }
+
+    public static void partialSort(int[] array, int k) {
+        if (k <= 0) {
+            return;
+        }
+        if (k >= array.length) {
+            introSort(array);
+            return;
+        }
+
+        // The k smallest elements go to [0 ... k-1] (array[k-1] is already in its place), then sort them
+        introSelect(array, 0, array.length - 1, k - 1);
+        introRecursion(array, 0, k - 2, 2 * (31 - Integer.numberOfLeadingZeros(k)));
+    }
+
+    public static int[] topK(int[] array, int k) {
+        k = Math.max(0, Math.min(k, array.length));
+        int[] top = new int[k];
+        if (k == 0) {
+            return top;
+        }
+
+        // The k largest elements go to [length-k ... length-1], sorted ascending
+        int first = array.length - k;
+        introSelect(array, 0, array.length - 1, first);
+        introRecursion(array, first + 1, array.length - 1, 2 * (31 - Integer.numberOfLeadingZeros(k)));
+
+        for (int i = 0; i < k; ++i) {
+            top[i] = array[array.length - 1 - i];
+        }
+        return top;
+    }
+
+    public static int[] multiSelect(int[] array, int[] ranks) {
+        int[] sortedRanks = ranks.clone();
+        introSort(sortedRanks);
+        for (int rank : sortedRanks) {
+            checkRank(array, rank);
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, array.length)));
+        multiSelectRecursion(array, 0, array.length - 1, sortedRanks, 0, sortedRanks.length, depthLimit);
+
+        int[] values = new int[ranks.length];
+        for (int i = 0; i < ranks.length; ++i) {
+            values[i] = array[ranks[i]];
+        }
+        return values;
+    }
+
+    private static void introSelect(int[] array, int leftIndex, int rightIndex, int k) {
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(rightIndex - leftIndex + 1));
+
+        while (rightIndex - leftIndex >= threshold) {
+            // Partition around the median-of-three, or around the median-of-medians after too many bad partitions
+            choosePivot(array, leftIndex, rightIndex, depthLimit-- <= 0);
+            long equalRange = threeWayPartition(array, leftIndex, rightIndex);
+
+            // Continue only in the part that contains position k
+            if (k < firstEqual(equalRange)) {
+                rightIndex = firstEqual(equalRange) - 1;
+            } else if (k > lastEqual(equalRange)) {
+                leftIndex = lastEqual(equalRange) + 1;
+            } else {
+                return;
+            }
+        }
+
+        InsertionSort.insertionSort(array, leftIndex, rightIndex);
+    }
+
+    // Places every rank of ranks[from ... to) (sorted) that lies in [leftIndex ... rightIndex] at its sorted position
+    private static void multiSelectRecursion(int[] array, int leftIndex, int rightIndex, int[] ranks, int from, int to,
+                                             int depthLimit) {
+        if (from >= to) {
+            return;
+        }
+        if (rightIndex - leftIndex < threshold) {
+            InsertionSort.insertionSort(array, leftIndex, rightIndex);
+            return;
+        }
+
+        choosePivot(array, leftIndex, rightIndex, depthLimit <= 0);
+        long equalRange = threeWayPartition(array, leftIndex, rightIndex);
+
+        // Split the ranks into those left of the equal elements and those right of them (the rest are already in place)
+        int leftRanks = from;
+        while (leftRanks < to && ranks[leftRanks] < firstEqual(equalRange)) {
+            ++leftRanks;
+        }
+        int rightRanks = leftRanks;
+        while (rightRanks < to && ranks[rightRanks] <= lastEqual(equalRange)) {
+            ++rightRanks;
+        }
+
+        multiSelectRecursion(array, leftIndex, firstEqual(equalRange) - 1, ranks, from, leftRanks, depthLimit - 1);
+        multiSelectRecursion(array, lastEqual(equalRange) + 1, rightIndex, ranks, rightRanks, to, depthLimit - 1);
+    }
+
+    // Moves the pivot to array[rightIndex] - median-of-three, or median-of-medians for a guaranteed good split
+    private static void choosePivot(int[] array, int leftIndex, int rightIndex, boolean medianOfMedians) {
+        if (medianOfMedians) {
+            swap(array, medianOfMedians(array, leftIndex, rightIndex), rightIndex);
+        } else {
+            getPivotAsMedianOfThree(array, leftIndex, rightIndex);
+        }
+    }
+
+    /*
+        Median-of-medians
+        Splits the range into groups of 5 elements, finds the median of every group (by sorting the 5 elements) and moves
+        the medians to the beginning of the range. The median of these N/5 medians, found recursively with the same
+        method, is bigger than at least 30% and smaller than at least 30% of the elements of the range.
+        Returns the index of that median.
+    */
+    private static int medianOfMedians(int[] array, int leftIndex, int rightIndex) {
+        if (rightIndex - leftIndex < 5) {
+            InsertionSort.insertionSort(array, leftIndex, rightIndex);
+            return leftIndex + (rightIndex - leftIndex) / 2;
+        }
+
+        // Move the median of every group of 5 to the beginning of the range
+        int mediansEnd = leftIndex;
+        for (int groupStart = leftIndex; groupStart <= rightIndex; groupStart += 5) {
+            int groupEnd = Math.min(groupStart + 4, rightIndex);
+            InsertionSort.insertionSort(array, groupStart, groupEnd);
+            swap(array, mediansEnd++, groupStart + (groupEnd - groupStart) / 2);
+        }
+
+        // Select the median of the medians, always with median-of-medians pivots (keeps the worst case linear)
+        int median = leftIndex + (mediansEnd - 1 - leftIndex) / 2;
+        medianOfMediansSelect(array, leftIndex, mediansEnd - 1, median);
+        return median;
+    }
+
+    private static void medianOfMediansSelect(int[] array, int leftIndex, int rightIndex, int k) {
+        while (rightIndex - leftIndex >= 5) {
+            swap(array, medianOfMedians(array, leftIndex, rightIndex), rightIndex);
+            long equalRange = threeWayPartition(array, leftIndex, rightIndex);
+
+            if (k < firstEqual(equalRange)) {
+                rightIndex = firstEqual(equalRange) - 1;
+            } else if (k > lastEqual(equalRange)) {
+                leftIndex = lastEqual(equalRange) + 1;
+            } else {
+                return;
+            }
+        }
+
+        InsertionSort.insertionSort(array, leftIndex, rightIndex);
+    }
+
+    private static void checkRank(int[] array, int k) {
+        if (k < 0 || k >= array.length) {
+            throw new IllegalArgumentException("Rank " + k + " is out of range for array of length " + array.length);
+        }
+    }
+
+
+    /*
+       Parallel QuickSort (Fork/Join)
+
+       After partitioning, the two sub-arrays are independent of each other, so they can be sorted at the same time.
+       - Every range bigger than the granularity cutoff (parallelTaskThreshold) is partitioned into three parts (smaller
+         than, equal to and bigger than the pivot), so many equal keys end up in the middle part at once instead of
+         being peeled off one by one. The smaller of the outer parts is forked as a separate task of a ForkJoinPool
+         (the idle workers steal the forked tasks), the bigger one is partitioned further by the same task - the
+         number of nested tasks stays O(logN).
+       - Ranges under the cutoff are not worth the task overhead and are sorted sequentially by pdqSort.
+       - The first partition pass touches all N elements and would otherwise run on a single core while all others wait.
+         That is why ranges bigger than parallelPartitionThreshold are partitioned in parallel as well (see
+         parallelThreeWayPartition).
+       - The pivot is chosen with the median-of-three method, because a bad pivot at the top levels leaves most of the
+         cores without work. After 2*log2(N) partitions of one task (as in Introsort) the rest of its range is sorted
+         by pdqSort, which is O(N logN) in the worst case.
+       - On a single core, and for arrays smaller than parallelThreshold, the array is sorted by pdqSort.
+         parallelThreshold is the calibrated cutoff of SortTuning (the size from which the parallel sort is faster on this
+         machine - the same cutoff Sorter uses). The task granularity parallelTaskThreshold is fixed on purpose: it only
+         has to make a task much bigger than the cost of forking it, which does not depend much on the machine.
+
+       * Time Complexity  O(N logN / P) on P cores (average); O(N logN) in the worst case
+       * Space Complexity O(logN) - the stack of each worker (plus a few int arrays per parallel partition pass)
+       * Not Stable algorithm
+    */
+    private static final int parallelThreshold = SortTuning.parallelThreshold;
+    private static final int parallelTaskThreshold = 1 << 13;
+    private static final int parallelPartitionThreshold = 1 << 20;
+    private static final int parallelPartitionBlock = 1 << 16;
+
+    public static void parallelSort(int[] array) {
+        if (array.length < parallelThreshold) {
+            pdqSort(array);
+            return;
+        }
+
+        forkJoinSort(array);
+    }
+
+    // Sorts on the common pool whatever the calibrated cutoff is (SortTuning measures the cutoff with it)
+    static void forkJoinSort(int[] array) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        if (array.length <= parallelTaskThreshold || pool.getParallelism() <= 1) {
+            pdqSort(array);
+            return;
+        }
+
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(array.length));
+        pool.invoke(new ParallelSortTask(array, 0, array.length - 1, depthLimit));
+    }
+
+    private static class ParallelSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] array;
+        private final int leftIndex;
+        private final int rightIndex;
+        private final int depthLimit;
+
+        ParallelSortTask(int[] array, int leftIndex, int rightIndex, int depthLimit) {
+            this.array = array;
+            this.leftIndex = leftIndex;
+            this.rightIndex = rightIndex;
+            this.depthLimit = depthLimit;
+        }
+
+        @Override
+        protected void compute() {
+            int leftIndex = this.leftIndex;
+            int rightIndex = this.rightIndex;
+            List<ParallelSortTask> forked = new ArrayList<>();
+
+            for (int depth = depthLimit; depth > 0 && rightIndex - leftIndex >= parallelTaskThreshold; --depth) {
+                // Partition the range into three parts around the pivot (median-of-three moved to array[rightIndex])
+                getPivotAsMedianOfThree(array, leftIndex, rightIndex);
+                long equalRange = (rightIndex - leftIndex >= parallelPartitionThreshold)
+                        ? parallelThreeWayPartition(array, leftIndex, rightIndex)
+                        : threeWayPartition(array, leftIndex, rightIndex);
+
+                // Fork the smaller part (or sort it right away if it is small) and continue with the bigger part
+                int smallerLeft;
+                int smallerRight;
+                if (firstEqual(equalRange) - leftIndex < rightIndex - lastEqual(equalRange)) {
+                    smallerLeft = leftIndex;
+                    smallerRight = firstEqual(equalRange) - 1;
+                    leftIndex = lastEqual(equalRange) + 1;
+                } else {
+                    smallerLeft = lastEqual(equalRange) + 1;
+                    smallerRight = rightIndex;
+                    rightIndex = firstEqual(equalRange) - 1;
+                }
+
+                if (smallerRight - smallerLeft < parallelTaskThreshold) {
+                    pdqSort(array, smallerLeft, smallerRight);
+                } else {
+                    ParallelSortTask task = new ParallelSortTask(array, smallerLeft, smallerRight, depth - 1);
+                    task.fork();
+                    forked.add(task);
+                }
+            }
+
+            // Small range, or too many bad partitions - sort the rest sequentially
+            pdqSort(array, leftIndex, rightIndex);
+
+            for (int i = forked.size() - 1; i >= 0; --i) {
+                forked.get(i).join();
+            }
+        }
+    }
+
+    /*
+        Parallel three-way partitioning (same result as threeWayPartition - the elements smaller than the pivot
+        array[rightIndex] are on the left, the elements equal to it in the middle and the bigger elements on the right).
+
+        The range is split twice by parallelSplit: first into [ <= pivot | > pivot ] (the pivot is then placed between
+        the two parts), then - only if the bigger part is less than 1/8 of the range, which is when equal keys matter -
+        the left part is split into [ < pivot | == pivot ]. For ints "< pivot" is the same as "<= pivot - 1".
+    */
+    private static long parallelThreeWayPartition(int[] array, int leftIndex, int rightIndex) {
+        int pivot = array[rightIndex];
+
+        int partitionIndex = parallelSplit(array, leftIndex, rightIndex, pivot);
+        swap(array, partitionIndex, rightIndex);
+
+        int firstEqual = partitionIndex;
+        if (rightIndex - partitionIndex < (rightIndex - leftIndex) / 8) {
+            firstEqual = (pivot == Integer.MIN_VALUE)
+                    ? leftIndex
+                    : parallelSplit(array, leftIndex, partitionIndex, pivot - 1);
+        }
+
+        return ((long) firstEqual << 32) | partitionIndex;
+    }
+
+    /*
+        Parallel split of [from ... to) into [ <= bound | > bound ], returns the index of the first bigger element.
+
+        1) Split [from ... to) into blocks and partition every block on its own, in parallel. After this step each
+           block looks like [ <= bound | > bound ].
+        2) Sum the sizes of the "<= bound" parts. This gives the index of the split (splitIndex).
+        3) Now the only misplaced elements are the "> bound" elements left of splitIndex and the "<= bound" elements
+           right of it, and there is the same number of both. They are swapped pairwise, again in parallel.
+    */
+    private static int parallelSplit(int[] array, int from, int to, int bound) {
+        // 1) Partition every block [blockStarts[b] ... blockStarts[b + 1]) on its own
+        int blocks = Math.max(1, Math.min(4 * ForkJoinPool.getCommonPoolParallelism(),
+                (to - from) / parallelPartitionBlock));
+        int[] blockStarts = new int[blocks + 1];
+        for (int b = 0; b <= blocks; ++b) {
+            blockStarts[b] = from + (int) ((long) (to - from) * b / blocks);
+        }
+
+        int[] blockSplits = new int[blocks];
+        List<RecursiveAction> tasks = new ArrayList<>(blocks);
+        for (int b = 0; b < blocks; ++b) {
+            final int block = b;
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    blockSplits[block] = partitionBlock(array, blockStarts[block], blockStarts[block + 1], bound);
+                }
+            });
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        // 2) Index of the split
+        int splitIndex = from;
+        for (int b = 0; b < blocks; ++b) {
+            splitIndex += blockSplits[b] - blockStarts[b];
+        }
+
+        // 3) Collect the misplaced ranges: bigger elements in [from ... splitIndex) and smaller or equal elements in
+        // [splitIndex ... to)
+        int[] biggerStarts = new int[blocks];
+        int[] biggerOffsets = new int[blocks + 1];
+        int[] smallerStarts = new int[blocks];
+        int[] smallerOffsets = new int[blocks + 1];
+        for (int b = 0; b < blocks; ++b) {
+            int biggerStart = blockSplits[b];
+            int biggerEnd = Math.min(blockStarts[b + 1], splitIndex);
+            biggerStarts[b] = biggerStart;
+            biggerOffsets[b + 1] = biggerOffsets[b] + Math.max(0, biggerEnd - biggerStart);
+
+            int smallerStart = Math.max(blockStarts[b], splitIndex);
+            int smallerEnd = blockSplits[b];
+            smallerStarts[b] = smallerStart;
+            smallerOffsets[b + 1] = smallerOffsets[b] + Math.max(0, smallerEnd - smallerStart);
+        }
+
+        // Swap the k-th misplaced bigger element with the k-th misplaced smaller element, split between the tasks
+        int misplaced = biggerOffsets[blocks];
+        if (misplaced > 0) {
+            int swapTasks = Math.max(1, Math.min(blocks, misplaced / parallelPartitionBlock));
+            tasks.clear();
+            for (int t = 0; t < swapTasks; ++t) {
+                final int first = (int) ((long) misplaced * t / swapTasks);
+                final int last = (int) ((long) misplaced * (t + 1) / swapTasks);
+                tasks.add(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        swapMisplaced(array, biggerStarts, biggerOffsets, smallerStarts, smallerOffsets, first, last);
+                    }
+                });
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+
+        return splitIndex;
+    }
+
+    // Partitions [from ... to) into [ <= pivot | > pivot ] and returns the index of the first bigger element.
+    private static int partitionBlock(int[] array, int from, int to, int pivot) {
+        int leftPointer = from;
+        int rightPointer = to - 1;
+
+        while (true) {
+            while (leftPointer <= rightPointer && array[leftPointer] <= pivot) {
+                ++leftPointer;
+            }
+            while (leftPointer <= rightPointer && array[rightPointer] > pivot) {
+                --rightPointer;
+            }
+
+            if (leftPointer >= rightPointer) {
+                return leftPointer;
+            }
+
+            swap(array, leftPointer, rightPointer);
+            ++leftPointer;
+            --rightPointer;
+        }
+    }
+
+    /*
+        The misplaced elements are described as lists of ranges: range b starts at starts[b] and the offsets array holds
+        the running total of the range lengths. Swaps the misplaced elements with numbers [from ... to) of both lists.
+    */
+    private static void swapMisplaced(int[] array, int[] biggerStarts, int[] biggerOffsets,
+                                      int[] smallerStarts, int[] smallerOffsets, int from, int to) {
+        int biggerRange = findRange(biggerOffsets, from);
+        int smallerRange = findRange(smallerOffsets, from);
+        int biggerIndex = biggerStarts[biggerRange] + (from - biggerOffsets[biggerRange]);
+        int smallerIndex = smallerStarts[smallerRange] + (from - smallerOffsets[smallerRange]);
+
+        for (int k = from; k < to; ++k) {
+            // Move on to the next non-empty range when the current one is exhausted
+            while (k == biggerOffsets[biggerRange + 1]) {
+                ++biggerRange;
+                biggerIndex = biggerStarts[biggerRange];
+            }
+            while (k == smallerOffsets[smallerRange + 1]) {
+                ++smallerRange;
+                smallerIndex = smallerStarts[smallerRange];
+            }
+
+            swap(array, biggerIndex++, smallerIndex++);
+        }
+    }
+
+    // Binary search for the range that contains the misplaced element with number k (offsets[range] <= k < offsets[range + 1])
+    private static int findRange(int[] offsets, int k) {
+        int low = 0;
+        int high = offsets.length - 2;
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= k) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
     }
 
 
@@ -351,23 +1472,24 @@ public class QuickSort {
         This function puts a median into array[rightIndex] first, then that new value of array[rightIndex] is used for
         a pivot, as in the Lomuto partitioning.
     */
-    private static void getPivotAsMedianOfThree(int[] array, int leftIndex, int rightIndex) {
+    static void getPivotAsMedianOfThree(int[] array, int leftIndex, int rightIndex) {
         int middleIndex = leftIndex + (rightIndex - leftIndex) / 2;
 
         // Effectively sort the values in leftIndex, middleIndex and rightIndex. Putting smallest in leftIndex,
         // largest in middleIndex and median in rightIndex.
-        if (array[leftIndex] > array[middleIndex]) {
+        if (SortMetrics.compared(array[leftIndex] > array[middleIndex])) {
             swap(array, leftIndex, middleIndex);
         }
-        if (array[leftIndex] > array[rightIndex]) {
+        if (SortMetrics.compared(array[leftIndex] > array[rightIndex])) {
             swap(array, leftIndex, rightIndex);
         }
-        if (array[rightIndex] > array[middleIndex]) {
+        if (SortMetrics.compared(array[rightIndex] > array[middleIndex])) {
             swap(array, rightIndex, middleIndex);
         }
     }
 
     private static void swap(int[] array, int firstIndex, int secondIndex) {
+        SortMetrics.swapped();
         int temp = array[firstIndex];
         array[firstIndex] = array[secondIndex];
         array[secondIndex] = temp;
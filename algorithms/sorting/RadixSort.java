@@ -0,0 +1,157 @@
+package algorithms.sorting;
+
+public class RadixSort {
+    /*
+        * Belongs to Integer sorts
+        - Not a comparison-based sorting.
+        - Sorts the numbers digit by digit, where a digit is a group of bits (here 8 bits, so one int has 4 digits and
+          every digit has 256 possible values). Every digit is sorted with a counting sort, whose count array has only
+          256 entries - unlike CountingSort, the range of the values does not matter.
+        - LSD (Least Significant Digit) radix sort sorts by the lowest digit first and by the highest digit last. This
+          only works because counting sort is stable: after sorting by digit d, numbers with equal digit d keep the order
+          given by the lower digits.
+        - MSD (Most Significant Digit) radix sort sorts by the highest digit first and then recursively sorts every
+          bucket (numbers with the same highest digit) by the next digit. Small buckets are finished with insertion sort.
+
+        - Negative numbers: in two's complement the sign bit makes negative numbers look bigger than positive ones.
+          Flipping the sign bit (x ^ Integer.MIN_VALUE) maps Integer.MIN_VALUE ... Integer.MAX_VALUE to the unsigned
+          order 0 ... 2^32-1, so the digits are taken from the flipped value.
+
+
+        * Time Complexity  O(W * (N + B))
+           - where W is the number of digits (4) and B is the number of digit values (256).
+           - LSD skips the passes where all numbers have the same digit (e.g. the highest digit of small numbers).
+        * Space Complexity O(N + B)
+           - Uses one auxiliary array of size N.
+        * Stable algorithm (both versions - the scatter keeps the input order and so does the insertion sort)
+
+
+        USE:
+        - When the range of the values is too big for counting sort (e.g. 32-bit IDs)
+        - When the array is big - for small arrays the 4 passes cost more than a comparison sort
+        AVOID:
+        - When memory is limited (O(N) auxiliary array)
+    */
+    private static final int digitBits = 8;
+    private static final int digitValues = 1 << digitBits;
+    private static final int digitMask = digitValues - 1;
+    private static final int digits = Integer.SIZE / digitBits;
+
+    // LSD Radix sort
+    public static void sort(int[] array) {
+        if (array.length < 2) {
+            return;
+        }
+
+        // Count the occurrences of every value of every digit in one pass
+        int[][] count = new int[digits][digitValues];
+        for (int element : array) {
+            int key = element ^ Integer.MIN_VALUE;
+            for (int d = 0; d < digits; ++d) {
+                ++count[d][(key >>> (d * digitBits)) & digitMask];
+            }
+        }
+
+        int[] source = array;
+        int[] destination = new int[array.length];
+        SortMetrics.allocated(4L * (digits * digitValues + array.length));
+
+        for (int d = 0; d < digits; ++d) {
+            int shift = d * digitBits;
+
+            // All numbers have the same digit d - the pass would not change anything
+            if (count[d][(source[0] ^ Integer.MIN_VALUE) >>> shift & digitMask] == array.length) {
+                continue;
+            }
+
+            countingSortByDigit(source, destination, count[d], shift);
+            SortMetrics.moved(array.length);
+
+            // The output of this pass is the input of the next one
+            int[] temp = source;
+            source = destination;
+            destination = temp;
+        }
+
+        // After an odd number of passes the result is in the auxiliary array
+        if (source != array) {
+            System.arraycopy(source, 0, array, 0, array.length);
+            SortMetrics.moved(array.length);
+        }
+    }
+
+    // Same as the stable CountingSort.sort, but the key of every element is its digit and the counts are already known
+    private static void countingSortByDigit(int[] source, int[] destination, int[] count, int shift) {
+        int[] position = count.clone();
+        SortMetrics.allocated(4L * position.length);
+
+        // Perform prefix sum computation on count in order to determine the position range of every digit value
+        for (int i = 1; i < position.length; ++i) {
+            position[i] += position[i - 1];
+        }
+
+        // Loop over the input array in reverse order, moving each element into it's sorted position (keeps it stable)
+        for (int i = source.length - 1; i >= 0; --i) {
+            int digit = ((source[i] ^ Integer.MIN_VALUE) >>> shift) & digitMask;
+            --position[digit];
+            destination[position[digit]] = source[i];
+        }
+    }
+
+
+    /*
+        MSD Radix sort
+
+        Sorts by the highest digit first, then every bucket recursively by the next digit. The recursion stops as soon as
+        a bucket is small, so on random data only the first one or two digits are ever looked at.
+    */
+    private static final int msdInsertionThreshold = 64;
+
+    public static void msdSort(int[] array) {
+        SortMetrics.allocated(4L * array.length);
+        msdRecursion(array, new int[array.length], 0, array.length, (digits - 1) * digitBits);
+    }
+
+    // Sorts array[from, to) by the digit at shift and the digits below it
+    private static void msdRecursion(int[] array, int[] buffer, int from, int to, int shift) {
+        // Small bucket - finish it with insertion sort
+        if (to - from < msdInsertionThreshold) {
+            InsertionSort.insertionSort(array, from, to - 1);
+            return;
+        }
+        SortMetrics.enter();
+
+        // Count the occurrences of every digit value
+        int[] count = new int[digitValues + 1];
+        for (int i = from; i < to; ++i) {
+            ++count[(((array[i] ^ Integer.MIN_VALUE) >>> shift) & digitMask) + 1];
+        }
+
+        // Prefix sum: count[digit] is the start of the bucket of digit, count[digit + 1] is its end
+        for (int i = 1; i <= digitValues; ++i) {
+            count[i] += count[i - 1];
+        }
+
+        // Scatter into the buffer and copy back
+        int[] position = count.clone();
+        SortMetrics.allocated(8L * count.length);
+        for (int i = from; i < to; ++i) {
+            int digit = ((array[i] ^ Integer.MIN_VALUE) >>> shift) & digitMask;
+            buffer[from + position[digit]++] = array[i];
+        }
+        System.arraycopy(buffer, from, array, from, to - from);
+        SortMetrics.moved(2L * (to - from));
+
+        // Sort every bucket by the next digit
+        if (shift == 0) {
+            SortMetrics.exit();
+            return;
+        }
+        for (int digit = 0; digit < digitValues; ++digit) {
+            if (count[digit + 1] - count[digit] > 1) {
+                msdRecursion(array, buffer, from + count[digit], from + count[digit + 1], shift - digitBits);
+            }
+        }
+        SortMetrics.exit();
+    }
+}
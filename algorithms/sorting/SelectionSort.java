@@ -50,7 +50,7 @@ public class SelectionSort {
             // Initialize min element with the unsorted array's first element (it's index for simplicity)
             int minIndex = i;
             for (int j = i + 1; j < array.length; ++j) {
-                if (array[minIndex] > array[j]) {
+                if (SortMetrics.compared(array[minIndex] > array[j])) {
                     // found new minimum
                     minIndex = j;
                 }
@@ -64,6 +64,7 @@ public class SelectionSort {
     }
 
     private static void swap(int[] array, int firstIndex, int secondIndex) {
+        SortMetrics.swapped();
         int temp = array[firstIndex];
         array[firstIndex] = array[secondIndex];
         array[secondIndex] = temp;
@@ -86,7 +87,7 @@ public class SelectionSort {
             // Initialize min element with the unsorted array's first element (it's index for simplicity)
             int minIndex = i;
             for (int j = i + 1; j < array.length; ++j) {
-                if (array[minIndex] > array[j]) {
+                if (SortMetrics.compared(array[minIndex] > array[j])) {
                     // found new minimum
                     minIndex = j;
                 }
@@ -96,6 +97,7 @@ public class SelectionSort {
             // In the unsorted sub-array shifts all larger elements back to make space for the found minimum right position.
             if (minIndex != i) {
                 int temp = array[minIndex];
+                SortMetrics.moved(minIndex - i + 1);
                 while (minIndex > i) {
                     array[minIndex] = array[minIndex - 1];
                     --minIndex;
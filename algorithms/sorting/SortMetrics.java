@@ -0,0 +1,225 @@
+package algorithms.sorting;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class SortMetrics {
+    /*
+        Operation counters for the sorting algorithms
+
+        The class comments state how many comparisons and swaps every algorithm makes; SortMetrics counts them on a real
+        input. The instrumented algorithms call the static hooks below (compared, swapped, moved, enter/exit, allocated,
+        partitioned), and the hooks add to the SortMetrics that listens at the moment:
+
+            SortMetrics metrics = SortMetrics.measure(() -> QuickSort.sort(array));
+            metrics.comparisons(); metrics.maxDepth(); metrics.unbalancedPartitions(); ...
+
+        Counted:
+        - comparisons of two elements
+        - swaps, and element moves (shifts and copies that are not swaps)
+        - maximum recursion depth (or the depth of the explicit stack in iterative versions)
+        - bytes allocated for scratch space (temporary arrays, count arrays, stacks)
+        - partitions, and how unbalanced they are. A partition of at least 16 elements is unbalanced if its smaller side
+          has less than 1/8 of the elements (small ranges near the leaves are skipped, they are often unbalanced).
+          QuickSort turns quadratic when (almost) all partitions are unbalanced, and then the maximum depth grows to O(N).
+
+        Instrumented: the int[] sorts of SelectionSort, BubbleSort, InsertionSort, HeapSort, MergeSort (not the parallel
+        merge), TimSort, CountingSort (sort and simpleSort) and RadixSort, and the sequential int[] sorts of QuickSort -
+        sort, the optimized, hybrid (every partition scheme), iterative, 3-way, intro and pdq sorts. The vectorized
+        partition and run detection (VectorScans) report one comparison per pair of elements they compare, like the
+        scalar loops they replace. Everything else runs uncounted: the long[], double[] and narrow-type sorts,
+        quickselect and the partial sorts, the parallel and bounded sorts (apart from the instrumented sorts they call),
+        ArgSort, OffHeapSort, ExternalSort and the merging classes.
+
+        Zero overhead when off:
+        The instrumentation is switched on only with the system property -Dalgorithms.sorting.metrics=true. The flag is
+        a static final field, so the JIT compiler treats it as a constant: every hook is a tiny static method that starts
+        with "if (enabled)", it is inlined into the algorithm, and without the property the whole body is removed as
+        dead code (compared(x) becomes just x).
+
+        - The counters are thread-safe (the parallel sorts may report from many threads), the recursion depth is tracked
+          per thread. Every measurement counts the depth from 0 again, so a sort that ended with an exception (e.g. a
+          StackOverflowError, which skips the exit() calls) does not shift the depth of the next measurements.
+        - measure() calls are serialized - only one sort is measured at a time; sorts running in other threads at the
+          same time are counted as well.
+    */
+    static final boolean enabled = Boolean.getBoolean("algorithms.sorting.metrics");
+
+    private static final int unbalancedRatio = 8;
+
+    private static final Object measureLock = new Object();
+    private static volatile SortMetrics active;
+    private static final ThreadLocal<Depth> depth = ThreadLocal.withInitial(Depth::new);
+
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder swaps = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder scratchBytes = new LongAdder();
+    private final LongAdder partitions = new LongAdder();
+    private final LongAdder unbalancedPartitions = new LongAdder();
+    private final AtomicLong maxDepth = new AtomicLong();
+
+    private SortMetrics() {
+    }
+
+    // Recursion depth of one thread, and the measurement it belongs to
+    private static final class Depth {
+        SortMetrics metrics;
+        int depth;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // Runs the sort and returns what it did. Throws IllegalStateException if the instrumentation is off.
+    public static SortMetrics measure(Runnable sort) {
+        if (!enabled) {
+            throw new IllegalStateException("Sort metrics are disabled, start the JVM with -Dalgorithms.sorting.metrics=true");
+        }
+
+        synchronized (measureLock) {
+            SortMetrics metrics = new SortMetrics();
+            active = metrics;
+            try {
+                sort.run();
+            } finally {
+                active = null;
+            }
+            return metrics;
+        }
+    }
+
+    public long comparisons() {
+        return comparisons.sum();
+    }
+
+    public long swaps() {
+        return swaps.sum();
+    }
+
+    public long moves() {
+        return moves.sum();
+    }
+
+    public long maxDepth() {
+        return maxDepth.get();
+    }
+
+    public long scratchBytes() {
+        return scratchBytes.sum();
+    }
+
+    public long partitions() {
+        return partitions.sum();
+    }
+
+    public long unbalancedPartitions() {
+        return unbalancedPartitions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "comparisons=" + comparisons() + ", swaps=" + swaps() + ", moves=" + moves() + ", maxDepth=" + maxDepth()
+                + ", scratchBytes=" + scratchBytes() + ", partitions=" + partitions()
+                + ", unbalancedPartitions=" + unbalancedPartitions();
+    }
+
+
+    // Hooks called by the algorithms. All of them are no-ops (and compiled away) when the instrumentation is off.
+
+    // Counts one comparison and returns its result: if (SortMetrics.compared(array[j] > array[j + 1])) ...
+    static boolean compared(boolean result) {
+        if (enabled) {
+            SortMetrics metrics = active;
+            if (metrics != null) {
+                metrics.comparisons.increment();
+            }
+        }
+        return result;
+    }
+
+    static void swapped() {
+        if (enabled) {
+            SortMetrics metrics = active;
+            if (metrics != null) {
+                metrics.swaps.increment();
+            }
+        }
+    }
+
+    // Counts the comparisons of a loop that does not compare one pair at a time (the vectorized scans)
+    static void comparedMany(long count) {
+        if (enabled) {
+            SortMetrics metrics = active;
+            if (metrics != null) {
+                metrics.comparisons.add(count);
+            }
+        }
+    }
+
+    static void moved(long count) {
+        if (enabled) {
+            SortMetrics metrics = active;
+            if (metrics != null) {
+                metrics.moves.add(count);
+            }
+        }
+    }
+
+    static void allocated(long bytes) {
+        if (enabled) {
+            SortMetrics metrics = active;
+            if (metrics != null) {
+                metrics.scratchBytes.add(bytes);
+            }
+        }
+    }
+
+    // A partition split a range into leftSize and rightSize elements (the pivot and the elements equal to it excluded)
+    static void partitioned(int leftSize, int rightSize) {
+        if (enabled) {
+            SortMetrics metrics = active;
+            if (metrics != null) {
+                metrics.partitions.increment();
+                long size = (long) leftSize + rightSize;
+                if (size >= 2 * unbalancedRatio && (long) Math.min(leftSize, rightSize) * unbalancedRatio < size) {
+                    metrics.unbalancedPartitions.increment();
+                }
+            }
+        }
+    }
+
+    // Called at the start and at every exit of a recursive function. The depth starts from 0 when the thread enters
+    // the first function of a new measurement, whatever an earlier sort left behind.
+    static void enter() {
+        if (enabled) {
+            SortMetrics metrics = active;
+            Depth current = depth.get();
+            if (current.metrics != metrics) {
+                current.metrics = metrics;
+                current.depth = 0;
+            }
+            stackDepth(++current.depth);
+        }
+    }
+
+    static void exit() {
+        if (enabled) {
+            Depth current = depth.get();
+            if (current.depth > 0) {
+                --current.depth;
+            }
+        }
+    }
+
+    // Depth of an explicit stack (iterative versions)
+    static void stackDepth(int currentDepth) {
+        if (enabled) {
+            SortMetrics metrics = active;
+            if (metrics != null) {
+                metrics.maxDepth.accumulateAndGet(currentDepth, Math::max);
+            }
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package algorithms.sorting;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public final class SortTuning {
+    /*
+        Machine-specific cutoffs of the hybrid algorithms
+
+        "The exact threshold must be determined experimentally and depends on the machine" - instead of fixed constants,
+        the cutoffs below are measured on the host CPU once and stored in a small profile file:
+        - insertionThreshold: ranges with fewer elements are finished with insertion sort instead of being partitioned
+          (QuickSort.threshold, used by hybridSort, introSort, select...). Default 10.
+        - parallelThreshold: from this size on Sorter chooses the parallel quicksort, and QuickSort.parallelSort,
+          MergeSort.parallelSort and CountingSort.parallelSort actually run in parallel (smaller arrays are sorted
+          sequentially). Default 2^20.
+        - countingRangePerElement: counting sort is used while range <= countingRangePerElement * N (Sorter and
+          CountingSort.boundedSort). Default 4.
+
+        Where the values come from, the first one found wins:
+        1) system properties -Dalgorithms.sorting.insertionThreshold=..., ...parallelThreshold, ...countingRangePerElement
+           (a value that is not a positive integer is reported on System.err and ignored)
+        2) the profile file: -Dalgorithms.sorting.profile=<path>, ~/.sorting-algorithms/tuning.properties by default.
+           It is used only if it was calibrated on the same kind of machine (same architecture, number of cores and
+           CPU model), so a home directory shared by different hosts does not spread the wrong values.
+        3) the defaults above
+
+        Calibration:
+        - java -cp <classpath> algorithms.sorting.SortTuning [profile] - measures the cutoffs and writes the profile.
+        - -Dalgorithms.sorting.calibrate=true - if there is no valid profile at startup, the calibration runs first (in a
+          separate JVM with the same JVM options, which takes a few seconds) and its profile is used and saved for the
+          next starts.
+        The values are read once, into static final fields, so the JIT compiler still treats them as constants.
+
+        The measurements (the best of several rounds on random data, after a warm-up):
+        - insertion sort of N elements against one median-of-three partition and insertion sort of both parts; the
+          threshold is the first N where partitioning wins (at most 64).
+        - QuickSort.pdqSort against the fork/join sort of QuickSort.parallelSort for N = 2^14 ... 2^22; the first N where
+          the parallel sort is at least 10% faster (never on a single core).
+        - CountingSort.sort against QuickSort.pdqSort for range = k * N, k = 1, 2, 4 ... 64; the largest k where counting
+          sort is faster (CountingSort.boundedSort still keeps its memory budget).
+    */
+    private static final String propertyPrefix = "algorithms.sorting.";
+    private static final String insertionThresholdKey = "insertionThreshold";
+    private static final String parallelThresholdKey = "parallelThreshold";
+    private static final String countingRangeKey = "countingRangePerElement";
+    private static final String machineKey = "machine";
+
+    private static final int defaultInsertionThreshold = 10;
+    private static final int defaultParallelThreshold = 1 << 20;
+    private static final int defaultCountingRangePerElement = 4;
+
+    static final int insertionThreshold;
+    static final int parallelThreshold;
+    static final int countingRangePerElement;
+
+    static {
+        Properties profile = loadProfile(profilePath());
+        if (profile == null && Boolean.getBoolean(propertyPrefix + "calibrate")) {
+            profile = calibrateInSeparateJvm(profilePath());
+        }
+        if (profile == null) {
+            profile = new Properties();
+        }
+
+        insertionThreshold = value(profile, insertionThresholdKey, defaultInsertionThreshold);
+        parallelThreshold = value(profile, parallelThresholdKey, defaultParallelThreshold);
+        countingRangePerElement = value(profile, countingRangeKey, defaultCountingRangePerElement);
+    }
+
+    private SortTuning() {
+    }
+
+    public static int insertionThreshold() {
+        return insertionThreshold;
+    }
+
+    public static int parallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public static int countingRangePerElement() {
+        return countingRangePerElement;
+    }
+
+    public static Path profilePath() {
+        String path = System.getProperty(propertyPrefix + "profile");
+        if (path != null) {
+            return Paths.get(path);
+        }
+        return Paths.get(System.getProperty("user.home"), ".sorting-algorithms", "tuning.properties");
+    }
+
+    // Calibrates and writes the profile (to the path given as the first argument, or to profilePath())
+    public static void main(String[] args) throws IOException {
+        Path profilePath = args.length > 0 ? Paths.get(args[0]) : profilePath();
+
+        Properties profile = calibrate();
+        saveProfile(profile, profilePath);
+
+        System.out.println("Calibrated " + profile.getProperty(machineKey) + " -> " + profilePath);
+        System.out.println(insertionThresholdKey + "=" + profile.getProperty(insertionThresholdKey));
+        System.out.println(parallelThresholdKey + "=" + profile.getProperty(parallelThresholdKey));
+        System.out.println(countingRangeKey + "=" + profile.getProperty(countingRangeKey));
+    }
+
+    // Measures the cutoffs on this machine
+    public static Properties calibrate() {
+        Properties profile = new Properties();
+        profile.setProperty(machineKey, machine());
+        profile.setProperty(insertionThresholdKey, Integer.toString(measureInsertionThreshold()));
+        profile.setProperty(parallelThresholdKey, Integer.toString(measureParallelThreshold()));
+        profile.setProperty(countingRangeKey, Integer.toString(measureCountingRangePerElement()));
+        return profile;
+    }
+
+
+    private static int measureInsertionThreshold() {
+        int[] sizes = {4, 6, 8, 10, 12, 16, 20, 24, 32, 40, 48, 64};
+        Random random = new Random(42);
+        int[] source = random.ints(1 << 16).toArray();
+        int[] array = new int[source.length];
+
+        for (int size : sizes) {
+            // Sort the same data as many arrays of the given size
+            int chunks = source.length / size;
+            long insertion = best(() -> {
+                System.arraycopy(source, 0, array, 0, source.length);
+                for (int c = 0; c < chunks; ++c) {
+                    InsertionSort.insertionSort(array, c * size, c * size + size - 1);
+                }
+            });
+            long partition = best(() -> {
+                System.arraycopy(source, 0, array, 0, source.length);
+                for (int c = 0; c < chunks; ++c) {
+                    int leftIndex = c * size;
+                    int rightIndex = leftIndex + size - 1;
+                    QuickSort.getPivotAsMedianOfThree(array, leftIndex, rightIndex);
+                    int partitionIndex = QuickSort.partition(array, leftIndex, rightIndex);
+                    InsertionSort.insertionSort(array, leftIndex, partitionIndex - 1);
+                    InsertionSort.insertionSort(array, partitionIndex + 1, rightIndex);
+                }
+            });
+
+            // Ranges of size elements are partitioned: rightIndex - leftIndex = size - 1 must not be < threshold
+            if (partition < insertion) {
+                return Math.max(2, size - 1);
+            }
+        }
+        return sizes[sizes.length - 1];
+    }
+
+    private static int measureParallelThreshold() {
+        if (ForkJoinPool.getCommonPoolParallelism() <= 1) {
+            return Integer.MAX_VALUE;
+        }
+
+        Random random = new Random(42);
+        for (int size = 1 << 14; size <= 1 << 22; size <<= 1) {
+            int[] source = random.ints(size).toArray();
+            int[] array = new int[size];
+
+            long sequential = best(() -> {
+                System.arraycopy(source, 0, array, 0, source.length);
+                QuickSort.pdqSort(array);
+            });
+            long parallel = best(() -> {
+                System.arraycopy(source, 0, array, 0, source.length);
+                QuickSort.forkJoinSort(array);
+            });
+
+            if (parallel * 10 < sequential * 9) {
+                return size;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private static int measureCountingRangePerElement() {
+        int size = 1 << 16;
+        Random random = new Random(42);
+        int[] array = new int[size];
+        int rangePerElement = 1;
+
+        for (int k = 1; k <= 64; k *= 2) {
+            int[] source = random.ints(size, 0, k * size).toArray();
+
+            long counting = best(() -> {
+                System.arraycopy(source, 0, array, 0, source.length);
+                CountingSort.sort(array);
+            });
+            long comparison = best(() -> {
+                System.arraycopy(source, 0, array, 0, source.length);
+                QuickSort.pdqSort(array);
+            });
+
+            if (counting >= comparison) {
+                break;
+            }
+            rangePerElement = k;
+        }
+        return rangePerElement;
+    }
+
+    // The best time of several rounds (the first rounds warm up the JIT compiler)
+    private static long best(Runnable round) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 15; ++i) {
+            long start = System.nanoTime();
+            round.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+
+    static int value(Properties profile, String key, int defaultValue) {
+        String override = System.getProperty(propertyPrefix + key);
+        if (override != null) {
+            try {
+                int value = Integer.parseInt(override.trim());
+                if (value > 0) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            // A typo in a flag must not make every sorting class fail to initialize - warn and ignore the flag
+            System.err.println("SortTuning: -D" + propertyPrefix + key + " must be a positive integer, ignoring "
+                    + override);
+        }
+
+        try {
+            int value = Integer.parseInt(profile.getProperty(key, "").trim());
+            return value > 0 ? value : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    // Returns null if there is no profile, it cannot be read, or it was calibrated on a different machine
+    static Properties loadProfile(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        Properties profile = new Properties();
+        try (InputStream input = Files.newInputStream(path)) {
+            profile.load(input);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+        return machine().equals(profile.getProperty(machineKey)) ? profile : null;
+    }
+
+    static void saveProfile(Properties profile, Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        // Write to a temporary file first - a JVM starting at the same time never reads half of the profile
+        Path temp = Files.createTempFile(parent, "tuning", ".tmp");
+        try (OutputStream output = Files.newOutputStream(temp)) {
+            profile.store(output, "Sorting cutoffs calibrated by algorithms.sorting.SortTuning");
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Calibration needs the sorting classes, which are being initialized right now - so it runs in a fresh JVM
+    private static Properties calibrateInSeparateJvm(Path profilePath) {
+        ProcessBuilder builder = new ProcessBuilder(calibrationCommand(profilePath,
+                ManagementFactory.getRuntimeMXBean().getInputArguments()));
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+
+        try {
+            if (builder.start().waitFor() != 0) {
+                System.err.println("SortTuning: calibration failed, using the default cutoffs");
+                return null;
+            }
+        } catch (IOException e) {
+            System.err.println("SortTuning: calibration failed (" + e.getMessage() + "), using the default cutoffs");
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return loadProfile(profilePath);
+    }
+
+    // The calibration JVM gets the JVM options of this one (--add-modules, the size of the common pool, the other
+    // -Dalgorithms.sorting flags, heap size...), so it measures the same configuration - except the calibrate flag,
+    // which would start the calibration again, and debugger agents, which would wait for a second debugger
+    static List<String> calibrationCommand(Path profilePath, List<String> jvmArguments) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (String argument : jvmArguments) {
+            if (!argument.startsWith("-D" + propertyPrefix + "calibrate") && !argument.startsWith("-agentlib:jdwp")
+                    && !argument.startsWith("-Xrunjdwp")) {
+                command.add(argument);
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SortTuning.class.getName());
+        command.add(profilePath.toString());
+        return command;
+    }
+
+    // Identifies the kind of machine the profile belongs to
+    static String machine() {
+        String cpu = "unknown";
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/cpuinfo"))) {
+                if (line.startsWith("model name")) {
+                    cpu = line.substring(line.indexOf(':') + 1).trim();
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // not Linux - architecture and number of cores only
+        }
+        return System.getProperty("os.arch") + ", " + Runtime.getRuntime().availableProcessors() + " cores, " + cpu;
+    }
+}
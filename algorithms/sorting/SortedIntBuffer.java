@@ -0,0 +1,335 @@
+package algorithms.sorting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+public final class SortedIntBuffer implements Iterable<Integer> {
+    /*
+        Sorted buffer for online ingestion (log-structured, as in an LSM tree)
+
+        Insertion sort is the algorithm to use "when you need to sort elements online", but inserting a batch of M
+        elements into a sorted array of N elements still moves O(N) elements per batch, and sorting the whole array again
+        on every batch costs O(N logN). This buffer never re-sorts what is already sorted:
+        - Single values (add) are collected in a small unsorted buffer. Chunks (addAll) and the full buffer are sorted on
+          their own, with QuickSort.introSort (the hybrid quicksort with insertion sort for small ranges, median-of-three
+          pivots and the heap sort fallback - so a presorted chunk is not quadratic), and stored as a sorted run.
+        - Runs are merged lazily, size-tiered: a new run is merged with the previous one (MergeSort.mergeRanges) while the
+          previous one is at most twice as long. The run lengths therefore at least double from the newest run to the
+          oldest one - there are at most log2(N) runs, and every element is merged O(logN) times in total.
+        - Queries work on the runs directly, without merging them: rank and countRange are binary searches in every run,
+          range and the iterator merge the runs on the fly (k-way merge with a min-heap, as ExternalSort.mergeRuns).
+          compact merges all runs into one, after which the queries are plain binary searches again.
+
+        A run is never modified after it was created (a merge creates a new array), so the iterator is a snapshot: later
+        calls of add do not change what it returns. The buffer itself is not thread-safe.
+
+        * Time Complexity
+           - addAll of M elements: O(M logM) to sort the chunk, plus O(logN) amortized merge moves per element
+           - rank, countRange: O(logN * logN) (a binary search in each of the O(logN) runs)
+           - select: O(32 * logN * logN) (binary search over the int values with rank)
+           - range, iteration: O(logN) per element, plus the binary searches
+        * Space Complexity O(N) - the runs, and a temporary array for every merge
+    */
+    private static final int pendingCapacity = 256;
+
+    // Sorted runs, the oldest (and longest) first
+    private final List<int[]> runs = new ArrayList<>();
+    // Unsorted values of add, not yet in a run
+    private final int[] pending = new int[pendingCapacity];
+    private int pendingSize;
+    private long size;
+
+    public void add(int value) {
+        if (pendingSize == pendingCapacity) {
+            flushPending();
+        }
+        pending[pendingSize++] = value;
+        ++size;
+    }
+
+    public void addAll(int[] values) {
+        addAll(values, 0, values.length);
+    }
+
+    // Appends values[from, to) as one chunk
+    public void addAll(int[] values, int from, int to) {
+        if (from < 0 || to > values.length || from > to) {
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") of " + values.length
+                    + " elements");
+        }
+        if (to - from < pendingCapacity - pendingSize) {
+            System.arraycopy(values, from, pending, pendingSize, to - from);
+            pendingSize += to - from;
+            size += to - from;
+            return;
+        }
+
+        flushPending();
+        int[] run = Arrays.copyOfRange(values, from, to);
+        QuickSort.introSort(run);
+        addRun(run);
+        size += to - from;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Number of sorted runs (after the pending values are sorted into a run)
+    public int runCount() {
+        flushPending();
+        return runs.size();
+    }
+
+    // Merges all runs into one
+    public void compact() {
+        flushPending();
+        while (runs.size() > 1) {
+            mergeLastRuns();
+        }
+    }
+
+    // All elements in sorted order (compacts the buffer first)
+    public int[] toArray() {
+        compact();
+        return runs.isEmpty() ? new int[0] : runs.get(0).clone();
+    }
+
+    // Number of elements smaller than value
+    public long rank(int value) {
+        flushPending();
+        long rank = 0;
+        for (int[] run : runs) {
+            rank += lowerBound(run, value);
+        }
+        return rank;
+    }
+
+    // Number of elements in [low, high]
+    public long countRange(int low, int high) {
+        if (low > high) {
+            return 0;
+        }
+        flushPending();
+        long count = 0;
+        for (int[] run : runs) {
+            count += upperBound(run, high) - lowerBound(run, low);
+        }
+        return count;
+    }
+
+    // The elements in [low, high], sorted
+    public int[] range(int low, int high) {
+        long count = countRange(low, high);
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Range [" + low + ", " + high + "] has too many elements: " + count);
+        }
+
+        int[] result = new int[(int) count];
+        if (count == 0) {
+            return result;
+        }
+        int[] from = new int[runs.size()];
+        int[] to = new int[runs.size()];
+        for (int run = 0; run < runs.size(); ++run) {
+            from[run] = lowerBound(runs.get(run), low);
+            to[run] = upperBound(runs.get(run), high);
+        }
+
+        MergingIterator iterator = new MergingIterator(runs.toArray(new int[0][]), from, to);
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = iterator.nextInt();
+        }
+        return result;
+    }
+
+    // The k-th smallest element (k = 0 is the minimum), as QuickSort.select would return for the sorted elements
+    public int select(long k) {
+        if (k < 0 || k >= size) {
+            throw new IllegalArgumentException("k must be in [0, " + size + "): " + k);
+        }
+        flushPending();
+
+        // The smallest value with more than k elements <= value
+        long low = Integer.MIN_VALUE;
+        long high = Integer.MAX_VALUE;
+        while (low < high) {
+            long mid = (low + high) >> 1;
+            if (countAtMost((int) mid) > k) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return (int) low;
+    }
+
+    // Iterates over all elements in sorted order. It is a snapshot of the elements at the time of the call.
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        flushPending();
+        int[][] snapshot = runs.toArray(new int[0][]);
+        int[] from = new int[snapshot.length];
+        int[] to = new int[snapshot.length];
+        for (int run = 0; run < snapshot.length; ++run) {
+            to[run] = snapshot[run].length;
+        }
+        return new MergingIterator(snapshot, from, to);
+    }
+
+    private long countAtMost(int value) {
+        long count = 0;
+        for (int[] run : runs) {
+            count += upperBound(run, value);
+        }
+        return count;
+    }
+
+    private void flushPending() {
+        if (pendingSize == 0) {
+            return;
+        }
+        int[] run = Arrays.copyOf(pending, pendingSize);
+        pendingSize = 0;
+        QuickSort.introSort(run);
+        addRun(run);
+    }
+
+    // Size-tiered merging: merge while the previous run is not more than twice as long as the last one
+    private void addRun(int[] run) {
+        runs.add(run);
+        while (runs.size() > 1 && runs.get(runs.size() - 2).length <= 2L * runs.get(runs.size() - 1).length) {
+            mergeLastRuns();
+        }
+    }
+
+    private void mergeLastRuns() {
+        int[] second = runs.remove(runs.size() - 1);
+        int[] first = runs.remove(runs.size() - 1);
+
+        int[] merged = new int[first.length + second.length];
+        SortMetrics.allocated(4L * merged.length);
+        MergeSort.mergeRanges(first, 0, first.length, second, 0, second.length, merged, 0);
+        SortMetrics.moved(merged.length);
+        runs.add(merged);
+    }
+
+    // Index of the first element >= value
+    private static int lowerBound(int[] run, int value) {
+        int low = 0;
+        int high = run.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (run[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Index of the first element > value
+    private static int upperBound(int[] run, int value) {
+        int low = 0;
+        int high = run.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (run[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /*
+        K-way merge of the slices runs[r][from[r], to[r]).
+        heap holds the indexes of the runs that are not exhausted, ordered by their current element, so the next element
+        is always runs[heap[0]][positions[heap[0]]].
+    */
+    private static final class MergingIterator implements PrimitiveIterator.OfInt {
+        private final int[][] runs;
+        private final int[] positions;
+        private final int[] ends;
+        private final int[] heap;
+        private int heapSize;
+
+        MergingIterator(int[][] runs, int[] from, int[] to) {
+            this.runs = runs;
+            this.positions = from;
+            this.ends = to;
+            this.heap = new int[runs.length];
+
+            for (int run = 0; run < runs.length; ++run) {
+                if (positions[run] < ends[run]) {
+                    heap[heapSize++] = run;
+                }
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; --i) {
+                siftDown(i);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return heapSize > 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (heapSize == 0) {
+                throw new NoSuchElementException();
+            }
+
+            int run = heap[0];
+            int element = runs[run][positions[run]++];
+
+            // Remove the exhausted run from the heap
+            if (positions[run] == ends[run]) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(0);
+            return element;
+        }
+
+        private void siftDown(int i) {
+            if (heapSize == 0) {
+                return;
+            }
+            int run = heap[i];
+
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+
+                // Pick the smaller child
+                if (child + 1 < heapSize && head(heap[child + 1]) < head(heap[child])) {
+                    ++child;
+                }
+                if (head(heap[child]) >= head(run)) {
+                    break;
+                }
+
+                heap[i] = heap[child];
+                i = child;
+            }
+
+            heap[i] = run;
+        }
+
+        private int head(int run) {
+            return runs[run][positions[run]];
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package algorithms.sorting;
+
+import java.util.concurrent.ForkJoinPool;
+
+public final class Sorter {
+    /*
+        Sorting with an automatically chosen algorithm
+
+        The class comments of the algorithms say when to use each of them - "when the array is nearly sorted", "when the
+        range is not significantly greater than N", "when there are multiple repeated elements". Sorter.sort takes that
+        decision for every call: it profiles the input with a cheap sampled scan and dispatches to the algorithm that fits.
+
+        The profile (sampleSize evenly spaced positions, O(sampleSize log sampleSize) - nothing compared to the sort):
+        - presortedness: how many of the sampled adjacent pairs (array[p], array[p+1]) are in descending order
+        - duplicates: how many of the sampled values are distinct
+        - value range: max - min of the sampled values (an estimate - CountingSort.boundedSort checks the exact range and
+          falls back to radix sort if an outlier was missed)
+
+        The rules, in this order:
+        1) N <= smallThreshold                            -> InsertionSort (fastest for very small arrays)
+        2) (almost) no descending or no ascending pairs   -> TimSort (adaptive merge sort, O(N) for sorted runs)
+        3) range <= maxRangePerElement * N                -> CountingSort (parallel counting sort if N is large)
+        4) N >= parallelThreshold and more than one core  -> QuickSort.parallelSort (partitions into three parts, so it
+                                                             handles many repeated values as well)
+        5) many repeated values and no order in the data  -> QuickSort.threeWaySort
+        6) anything else                                  -> QuickSort.pdqSort
+        maxRangePerElement and parallelThreshold are the calibrated values of SortTuning.
+        threeWaySort uses the rightmost element as the pivot, which is quadratic on sorted runs - so it is chosen only when
+        the sampled pairs look random (between 1/3 and 2/3 of them descending). pdqSort handles repeated values as well.
+
+        Every call returns a Decision - the chosen algorithm, the reason, and the profile it was based on. The decision of
+        the last call in the current thread is also available from lastDecision(). The reason is put into words only
+        when it is asked for (reason(), toString()), so a sort call does not build a String.
+    */
+    public enum Algorithm {
+        NONE, INSERTION_SORT, TIM_SORT, COUNTING_SORT, PARALLEL_COUNTING_SORT, PARALLEL_QUICK_SORT, THREE_WAY_QUICK_SORT,
+        PDQ_SORT
+    }
+
+    public static final class Decision {
+        private final Algorithm algorithm;
+        private final int length;
+        private final int workers;
+        private final int sampleSize;
+        private final int descendingPairs;
+        private final int ascendingPairs;
+        private final int distinctValues;
+        private final long estimatedRange;
+
+        private Decision(Algorithm algorithm, int length, int workers, int sampleSize, int descendingPairs,
+                         int ascendingPairs, int distinctValues, long estimatedRange) {
+            this.algorithm = algorithm;
+            this.length = length;
+            this.workers = workers;
+            this.sampleSize = sampleSize;
+            this.descendingPairs = descendingPairs;
+            this.ascendingPairs = ascendingPairs;
+            this.distinctValues = distinctValues;
+            this.estimatedRange = estimatedRange;
+        }
+
+        public Algorithm algorithm() {
+            return algorithm;
+        }
+
+        // The rule that chose the algorithm, with the numbers it was based on
+        public String reason() {
+            switch (algorithm) {
+                case NONE:
+                    return "fewer than 2 elements";
+                case INSERTION_SORT:
+                    return "small array (N = " + length + " <= " + smallThreshold + ")";
+                case TIM_SORT:
+                    return "nearly " + (descendingPairs <= ascendingPairs ? "sorted" : "reverse sorted") + " ("
+                            + descendingPairs + " of " + sampleSize + " sampled pairs descending)";
+                case COUNTING_SORT:
+                    return "estimated value range " + estimatedRange + " <= " + maxRangePerElement + " * N";
+                case PARALLEL_COUNTING_SORT:
+                    return "estimated value range " + estimatedRange + " <= " + maxRangePerElement + " * N, N >= "
+                            + parallelThreshold;
+                case PARALLEL_QUICK_SORT:
+                    return "large array (N = " + length + " >= " + parallelThreshold + ") and " + workers + " workers"
+                            + (distinctValues * 2 <= sampleSize
+                            ? ", " + distinctValues + " distinct of " + sampleSize + " sampled" : "");
+                case THREE_WAY_QUICK_SORT:
+                    return "many repeated values (" + distinctValues + " distinct of " + sampleSize
+                            + " sampled) in random order";
+                default:
+                    return "no exploitable structure found";
+            }
+        }
+
+        public int sampleSize() {
+            return sampleSize;
+        }
+
+        public int descendingPairs() {
+            return descendingPairs;
+        }
+
+        public int ascendingPairs() {
+            return ascendingPairs;
+        }
+
+        public int distinctValues() {
+            return distinctValues;
+        }
+
+        public long estimatedRange() {
+            return estimatedRange;
+        }
+
+        @Override
+        public String toString() {
+            return algorithm + " (" + reason() + ")";
+        }
+    }
+
+    private static final int smallThreshold = 32;
+    private static final int sampleSize = 1024;
+    private static final int presortedRatio = 32;
+    private static final int maxRangePerElement = SortTuning.countingRangePerElement;
+    private static final int parallelThreshold = SortTuning.parallelThreshold;
+
+    private static final ThreadLocal<Decision> lastDecision = new ThreadLocal<>();
+
+    private Sorter() {
+    }
+
+    public static Decision sort(int[] array) {
+        Decision decision = decide(array);
+        lastDecision.set(decision);
+
+        switch (decision.algorithm()) {
+            case NONE:
+                break;
+            case INSERTION_SORT:
+                InsertionSort.sort(array);
+                break;
+            case TIM_SORT:
+                TimSort.sort(array);
+                break;
+            case COUNTING_SORT:
+                CountingSort.boundedSort(array);
+                break;
+            case PARALLEL_COUNTING_SORT:
+                CountingSort.parallelSort(array);
+                break;
+            case PARALLEL_QUICK_SORT:
+                QuickSort.parallelSort(array);
+                break;
+            case THREE_WAY_QUICK_SORT:
+                QuickSort.threeWaySort(array);
+                break;
+            default:
+                QuickSort.pdqSort(array);
+        }
+
+        return decision;
+    }
+
+    // The decision of the last sort call in the current thread, or null
+    public static Decision lastDecision() {
+        return lastDecision.get();
+    }
+
+    // Profiles the array and chooses the algorithm, without sorting
+    public static Decision decide(int[] array) {
+        int length = array.length;
+        int workers = ForkJoinPool.getCommonPoolParallelism();
+        if (length < 2) {
+            return new Decision(Algorithm.NONE, length, workers, 0, 0, 0, length, length);
+        }
+        if (length <= smallThreshold) {
+            return new Decision(Algorithm.INSERTION_SORT, length, workers, 0, 0, 0, 0, 0);
+        }
+
+        // Sample evenly spaced adjacent pairs (array[p], array[p+1])
+        int samples = Math.min(sampleSize, length - 1);
+        int[] sample = new int[samples];
+        int descending = 0;
+        int ascending = 0;
+        for (int i = 0; i < samples; ++i) {
+            int position = (int) ((long) i * (length - 1) / samples);
+            int current = array[position];
+            int next = array[position + 1];
+
+            if (current > next) {
+                ++descending;
+            } else if (current < next) {
+                ++ascending;
+            }
+            sample[i] = current;
+        }
+
+        // Distinct values and range of the sample
+        QuickSort.introSort(sample);
+        int distinct = 1;
+        for (int i = 1; i < samples; ++i) {
+            if (sample[i] != sample[i - 1]) {
+                ++distinct;
+            }
+        }
+        long range = (long) sample[samples - 1] - sample[0] + 1;
+
+        boolean parallel = length >= parallelThreshold && workers > 1;
+        Algorithm algorithm;
+        if (descending * presortedRatio <= samples || ascending * presortedRatio <= samples) {
+            algorithm = Algorithm.TIM_SORT;
+        } else if (range <= (long) maxRangePerElement * length) {
+            algorithm = parallel ? Algorithm.PARALLEL_COUNTING_SORT : Algorithm.COUNTING_SORT;
+        } else if (parallel) {
+            algorithm = Algorithm.PARALLEL_QUICK_SORT;
+        } else if (distinct * 2 <= samples && descending * 3 >= samples && descending * 3 <= 2 * samples) {
+            algorithm = Algorithm.THREE_WAY_QUICK_SORT;
+        } else {
+            algorithm = Algorithm.PDQ_SORT;
+        }
+
+        return new Decision(algorithm, length, workers, samples, descending, ascending, distinct, range);
+    }
+}
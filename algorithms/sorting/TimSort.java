@@ -0,0 +1,544 @@
+package algorithms.sorting;
+
+public class TimSort {
+    /*
+        TimSort (Tim Peters) is an adaptive, stable merge sort - a hybrid of merge sort and (binary) insertion sort that
+        takes advantage of the order that already exists in the data.
+
+        - The array is split into runs - maximal sub-arrays that are already sorted: non-descending, or strictly
+          descending (which are reversed in place; strictly, so that equal elements do not change their order).
+        - Runs shorter than minRun (a number between 16 and 32, chosen so that N / minRun is close to a power of two) are
+          extended to minRun elements with binary insertion sort.
+        - Every run is pushed onto a stack. The lengths of the runs on the stack are kept roughly balanced (every run is
+          longer than the sum of the two above it, every run is longer than the run above it), by merging the top runs
+          whenever the rule is broken. This keeps the merges balanced, like in the bottom-up merge sort, and the stack
+          short (O(logN)).
+        - Merging two runs first skips the elements that are already in their final position (the start of the first run
+          and the end of the second one), then merges using a temporary array of the size of the shorter run.
+        - Galloping: when one run keeps "winning" (minGallop times in a row), the merge switches to exponential + binary
+          search to find how many elements can be copied at once with System.arraycopy. minGallop adapts to the data.
+
+
+        * Comparison-based sorting.
+        * Time Complexity
+           - Best-case O(N) - the array is sorted, reverse-sorted, or made of a few sorted runs
+           - Average and Worst-case O(N logN)
+        * Space Complexity O(N)
+           - N/2 in the worst case (the temporary array only holds the shorter of the two merged runs)
+        * Stable algorithm
+        * Adaptive
+
+
+        USE:
+        - When the data is partially sorted, e.g. concatenated sorted batches
+        - When a stable sort is needed
+        AVOID:
+        - When memory is limited
+    */
+    private static final int minMerge = 32;
+    private static final int initialMinGallop = 7;
+
+    private final int[] array;
+    private int[] temp = new int[0];
+    private int minGallop = initialMinGallop;
+
+    // Stack of the pending runs: run i starts at runBase[i] and has runLength[i] elements
+    private final int[] runBase = new int[64];
+    private final int[] runLength = new int[64];
+    private int stackSize = 0;
+
+    private TimSort(int[] array) {
+        this.array = array;
+    }
+
+    public static void sort(int[] array) {
+        int size = array.length;
+        if (size < 2) {
+            return;
+        }
+
+        // Small array - a single run extended with binary insertion sort
+        if (size < minMerge) {
+            int length = countRunAndMakeAscending(array, 0, size);
+            InsertionSort.binaryInsertionSort(array, 0, size - 1, length);
+            return;
+        }
+
+        TimSort timSort = new TimSort(array);
+        int minRun = minRunLength(size);
+        int low = 0;
+        int remaining = size;
+
+        while (remaining != 0) {
+            // Find the next run
+            int length = countRunAndMakeAscending(array, low, size);
+
+            // Short run - extend it to minRun elements (or the rest of the array)
+            if (length < minRun) {
+                int forcedLength = Math.min(remaining, minRun);
+                InsertionSort.binaryInsertionSort(array, low, low + forcedLength - 1, low + length);
+                length = forcedLength;
+            }
+
+            // Push the run onto the stack and merge runs to keep the stack balanced
+            timSort.pushRun(low, length);
+            timSort.mergeCollapse();
+
+            low += length;
+            remaining -= length;
+        }
+
+        // Merge all remaining runs
+        timSort.mergeForceCollapse();
+    }
+
+    // Returns N, if N < minMerge. Otherwise a number k in [minMerge/2 ... minMerge] such that N/k is close to, but
+    // strictly less than, an exact power of 2 (the top bits of N, plus 1 if any of the remaining bits is set).
+    private static int minRunLength(int size) {
+        int remainder = 0;
+        while (size >= minMerge) {
+            remainder |= (size & 1);
+            size >>= 1;
+        }
+        return size + remainder;
+    }
+
+    // Returns the length of the run starting at array[low] (the range is [low ... high)). A strictly descending run is
+    // reversed, so the returned run is always ascending.
+    private static int countRunAndMakeAscending(int[] array, int low, int high) {
+        int runHigh = low + 1;
+        if (runHigh == high) {
+            return 1;
+        }
+
+        if (SortMetrics.compared(array[runHigh++] < array[low])) {
+            // Strictly descending
+            while (runHigh < high && SortMetrics.compared(array[runHigh] < array[runHigh - 1])) {
+                ++runHigh;
+            }
+            reverse(array, low, runHigh - 1);
+        } else {
+            // Non-descending
+            if (VectorSupport.enabled) {
+                runHigh = VectorScans.ascendingRunEnd(array, runHigh - 1, high);
+            }
+            while (runHigh < high && SortMetrics.compared(array[runHigh] >= array[runHigh - 1])) {
+                ++runHigh;
+            }
+        }
+
+        return runHigh - low;
+    }
+
+    private static void reverse(int[] array, int leftIndex, int rightIndex) {
+        while (leftIndex < rightIndex) {
+            SortMetrics.swapped();
+            int temp = array[leftIndex];
+            array[leftIndex++] = array[rightIndex];
+            array[rightIndex--] = temp;
+        }
+    }
+
+    private void pushRun(int base, int length) {
+        runBase[stackSize] = base;
+        runLength[stackSize] = length;
+        ++stackSize;
+        SortMetrics.stackDepth(stackSize);
+    }
+
+    /*
+        Merges runs until the stack invariants hold again (for the top runs ... X, Y, Z, W):
+        - Y > Z + W and X > Y + Z
+        - Z > W
+        If the first invariant is broken, Z is merged with the shorter of Y and W. If only the second one is broken,
+        Z and W are merged.
+    */
+    private void mergeCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+
+            if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+                    || n > 1 && runLength[n - 2] <= runLength[n] + runLength[n - 1]) {
+                if (runLength[n - 1] < runLength[n + 1]) {
+                    --n;
+                }
+            } else if (runLength[n] > runLength[n + 1]) {
+                break;
+            }
+
+            mergeAt(n);
+        }
+    }
+
+    // Merges all runs on the stack until only one remains (at the end of the sort)
+    private void mergeForceCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLength[n - 1] < runLength[n + 1]) {
+                --n;
+            }
+            mergeAt(n);
+        }
+    }
+
+    // Merges the two runs at stack positions i and i+1 (i is the second or the third run from the top)
+    private void mergeAt(int i) {
+        int firstBase = runBase[i];
+        int firstLength = runLength[i];
+        int secondBase = runBase[i + 1];
+        int secondLength = runLength[i + 1];
+
+        // The merged run replaces both runs on the stack
+        runLength[i] = firstLength + secondLength;
+        if (i == stackSize - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLength[i + 1] = runLength[i + 2];
+        }
+        --stackSize;
+
+        // Elements of the first run that are smaller than or equal to the first element of the second run are already
+        // in place
+        int skipped = gallopRight(array[secondBase], array, firstBase, firstLength, 0);
+        firstBase += skipped;
+        firstLength -= skipped;
+        if (firstLength == 0) {
+            return;
+        }
+
+        // Elements of the second run that are bigger than or equal to the last element of the first run are already
+        // in place
+        secondLength = gallopLeft(array[firstBase + firstLength - 1], array, secondBase, secondLength, secondLength - 1);
+        if (secondLength == 0) {
+            return;
+        }
+
+        // Merge the remaining elements, using a temporary array of the size of the shorter run
+        if (firstLength <= secondLength) {
+            mergeLow(firstBase, firstLength, secondBase, secondLength);
+        } else {
+            mergeHigh(firstBase, firstLength, secondBase, secondLength);
+        }
+    }
+
+    /*
+        Galloping search in the sorted range [base ... base+length) of source, starting from base+hint.
+        Checks offsets 1, 3, 7, 15, ... from the hint until the key is passed, then binary searches the last interval.
+        This is faster than a binary search when the position is close to the hint.
+
+        gallopLeft returns the position of the first element that is >= key (insert key before the equal elements),
+        gallopRight returns the position after the last element that is <= key (insert key after the equal elements).
+        Both positions are relative to base.
+    */
+    private static int gallopLeft(int key, int[] source, int base, int length, int hint) {
+        int lastOffset = 0;
+        int offset = 1;
+
+        if (SortMetrics.compared(key > source[base + hint])) {
+            // Gallop right until source[base+hint+lastOffset] < key <= source[base+hint+offset]
+            int maxOffset = length - hint;
+            while (offset < maxOffset && SortMetrics.compared(key > source[base + hint + offset])) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset; // int overflow
+                }
+            }
+            offset = Math.min(offset, maxOffset);
+
+            lastOffset += hint;
+            offset += hint;
+        } else {
+            // Gallop left until source[base+hint-offset] < key <= source[base+hint-lastOffset]
+            int maxOffset = hint + 1;
+            while (offset < maxOffset && SortMetrics.compared(key <= source[base + hint - offset])) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            offset = Math.min(offset, maxOffset);
+
+            int temp = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - temp;
+        }
+
+        // Now source[base+lastOffset] < key <= source[base+offset] - binary search in between
+        ++lastOffset;
+        while (lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+
+            if (SortMetrics.compared(key > source[base + mid])) {
+                lastOffset = mid + 1;
+            } else {
+                offset = mid;
+            }
+        }
+
+        return offset;
+    }
+
+    private static int gallopRight(int key, int[] source, int base, int length, int hint) {
+        int lastOffset = 0;
+        int offset = 1;
+
+        if (SortMetrics.compared(key < source[base + hint])) {
+            // Gallop left until source[base+hint-offset] <= key < source[base+hint-lastOffset]
+            int maxOffset = hint + 1;
+            while (offset < maxOffset && SortMetrics.compared(key < source[base + hint - offset])) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            offset = Math.min(offset, maxOffset);
+
+            int temp = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - temp;
+        } else {
+            // Gallop right until source[base+hint+lastOffset] <= key < source[base+hint+offset]
+            int maxOffset = length - hint;
+            while (offset < maxOffset && SortMetrics.compared(key >= source[base + hint + offset])) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            offset = Math.min(offset, maxOffset);
+
+            lastOffset += hint;
+            offset += hint;
+        }
+
+        // Now source[base+lastOffset] <= key < source[base+offset] - binary search in between
+        ++lastOffset;
+        while (lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+
+            if (SortMetrics.compared(key < source[base + mid])) {
+                offset = mid;
+            } else {
+                lastOffset = mid + 1;
+            }
+        }
+
+        return offset;
+    }
+
+    /*
+        Merges the adjacent runs [firstBase ... firstBase+firstLength) and [secondBase ... secondBase+secondLength) from
+        left to right. The first (shorter) run is copied to the temporary array.
+        Called after mergeAt, so the first element of the second run is smaller than the first element of the first run,
+        and the last element of the first run is bigger than the last element of the second run.
+    */
+    private void mergeLow(int firstBase, int firstLength, int secondBase, int secondLength) {
+        int[] temp = ensureCapacity(firstLength);
+        System.arraycopy(array, firstBase, temp, 0, firstLength);
+        SortMetrics.moved(2L * firstLength + secondLength);
+
+        int firstCursor = 0;            // index in temp
+        int secondCursor = secondBase;  // index in array
+        int destination = firstBase;    // index in array
+
+        // The first element of the second run goes first
+        array[destination++] = array[secondCursor++];
+        if (--secondLength == 0) {
+            System.arraycopy(temp, firstCursor, array, destination, firstLength);
+            return;
+        }
+        if (firstLength == 1) {
+            System.arraycopy(array, secondCursor, array, destination, secondLength);
+            array[destination + secondLength] = temp[firstCursor];
+            return;
+        }
+
+        outer:
+        while (true) {
+            int firstWins = 0;
+            int secondWins = 0;
+
+            // Merge one element at a time until one run wins minGallop times in a row
+            do {
+                // Stable sort -> if the elements are equal, select the element from the first run
+                if (SortMetrics.compared(array[secondCursor] < temp[firstCursor])) {
+                    array[destination++] = array[secondCursor++];
+                    ++secondWins;
+                    firstWins = 0;
+                    if (--secondLength == 0) {
+                        break outer;
+                    }
+                } else {
+                    array[destination++] = temp[firstCursor++];
+                    ++firstWins;
+                    secondWins = 0;
+                    if (--firstLength == 1) {
+                        break outer;
+                    }
+                }
+            } while ((firstWins | secondWins) < minGallop);
+
+            // Galloping mode - copy whole blocks while galloping pays off
+            do {
+                firstWins = gallopRight(array[secondCursor], temp, firstCursor, firstLength, 0);
+                if (firstWins != 0) {
+                    System.arraycopy(temp, firstCursor, array, destination, firstWins);
+                    destination += firstWins;
+                    firstCursor += firstWins;
+                    firstLength -= firstWins;
+                    if (firstLength <= 1) {
+                        break outer;
+                    }
+                }
+                array[destination++] = array[secondCursor++];
+                if (--secondLength == 0) {
+                    break outer;
+                }
+
+                secondWins = gallopLeft(temp[firstCursor], array, secondCursor, secondLength, 0);
+                if (secondWins != 0) {
+                    System.arraycopy(array, secondCursor, array, destination, secondWins);
+                    destination += secondWins;
+                    secondCursor += secondWins;
+                    secondLength -= secondWins;
+                    if (secondLength == 0) {
+                        break outer;
+                    }
+                }
+                array[destination++] = temp[firstCursor++];
+                if (--firstLength == 1) {
+                    break outer;
+                }
+
+                --minGallop;
+            } while (firstWins >= initialMinGallop || secondWins >= initialMinGallop);
+
+            // Galloping stopped paying off - make it harder to enter galloping mode again
+            minGallop = Math.max(minGallop, 0) + 2;
+        }
+        minGallop = Math.max(minGallop, 1);
+
+        if (firstLength == 1) {
+            // The last element of the first run is the biggest one
+            System.arraycopy(array, secondCursor, array, destination, secondLength);
+            array[destination + secondLength] = temp[firstCursor];
+        } else {
+            // The second run is exhausted
+            System.arraycopy(temp, firstCursor, array, destination, firstLength);
+        }
+    }
+
+    // Like mergeLow, but merges from right to left and copies the second (shorter) run to the temporary array.
+    private void mergeHigh(int firstBase, int firstLength, int secondBase, int secondLength) {
+        int[] temp = ensureCapacity(secondLength);
+        System.arraycopy(array, secondBase, temp, 0, secondLength);
+        SortMetrics.moved(firstLength + 2L * secondLength);
+
+        int firstCursor = firstBase + firstLength - 1;   // index in array
+        int secondCursor = secondLength - 1;             // index in temp
+        int destination = secondBase + secondLength - 1; // index in array
+
+        // The last element of the first run goes last
+        array[destination--] = array[firstCursor--];
+        if (--firstLength == 0) {
+            System.arraycopy(temp, 0, array, destination - (secondLength - 1), secondLength);
+            return;
+        }
+        if (secondLength == 1) {
+            destination -= firstLength;
+            firstCursor -= firstLength;
+            System.arraycopy(array, firstCursor + 1, array, destination + 1, firstLength);
+            array[destination] = temp[secondCursor];
+            return;
+        }
+
+        outer:
+        while (true) {
+            int firstWins = 0;
+            int secondWins = 0;
+
+            // Merge one element at a time until one run wins minGallop times in a row
+            do {
+                // Stable sort -> if the elements are equal, the element from the second run goes last
+                if (SortMetrics.compared(temp[secondCursor] < array[firstCursor])) {
+                    array[destination--] = array[firstCursor--];
+                    ++firstWins;
+                    secondWins = 0;
+                    if (--firstLength == 0) {
+                        break outer;
+                    }
+                } else {
+                    array[destination--] = temp[secondCursor--];
+                    ++secondWins;
+                    firstWins = 0;
+                    if (--secondLength == 1) {
+                        break outer;
+                    }
+                }
+            } while ((firstWins | secondWins) < minGallop);
+
+            // Galloping mode - copy whole blocks while galloping pays off
+            do {
+                firstWins = firstLength - gallopRight(temp[secondCursor], array, firstBase, firstLength, firstLength - 1);
+                if (firstWins != 0) {
+                    destination -= firstWins;
+                    firstCursor -= firstWins;
+                    firstLength -= firstWins;
+                    System.arraycopy(array, firstCursor + 1, array, destination + 1, firstWins);
+                    if (firstLength == 0) {
+                        break outer;
+                    }
+                }
+                array[destination--] = temp[secondCursor--];
+                if (--secondLength == 1) {
+                    break outer;
+                }
+
+                secondWins = secondLength - gallopLeft(array[firstCursor], temp, 0, secondLength, secondLength - 1);
+                if (secondWins != 0) {
+                    destination -= secondWins;
+                    secondCursor -= secondWins;
+                    secondLength -= secondWins;
+                    System.arraycopy(temp, secondCursor + 1, array, destination + 1, secondWins);
+                    if (secondLength <= 1) {
+                        break outer;
+                    }
+                }
+                array[destination--] = array[firstCursor--];
+                if (--firstLength == 0) {
+                    break outer;
+                }
+
+                --minGallop;
+            } while (firstWins >= initialMinGallop || secondWins >= initialMinGallop);
+
+            // Galloping stopped paying off - make it harder to enter galloping mode again
+            minGallop = Math.max(minGallop, 0) + 2;
+        }
+        minGallop = Math.max(minGallop, 1);
+
+        if (secondLength == 1) {
+            // The first element of the second run is the smallest one
+            destination -= firstLength;
+            firstCursor -= firstLength;
+            System.arraycopy(array, firstCursor + 1, array, destination + 1, firstLength);
+            array[destination] = temp[secondCursor];
+        } else {
+            // The first run is exhausted
+            System.arraycopy(temp, 0, array, destination - (secondLength - 1), secondLength);
+        }
+    }
+
+    // Temporary array with at least minCapacity elements, grown geometrically and reused between the merges
+    private int[] ensureCapacity(int minCapacity) {
+        if (temp.length < minCapacity) {
+            int newCapacity = Math.max(minCapacity, Math.min(2 * temp.length, array.length / 2));
+            temp = new int[newCapacity];
+            SortMetrics.allocated(4L * newCapacity);
+        }
+        return temp;
+    }
+}
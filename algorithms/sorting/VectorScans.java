@@ -0,0 +1,241 @@
+package algorithms.sorting;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+final class VectorScans {
+    /*
+        SIMD versions of the data-parallel loops (only called when VectorSupport.enabled)
+
+        A vector register holds several ints (8 in 256 bits, 16 in 512 bits) and one instruction processes all of them.
+        - minMax: running lane-wise min and max vectors, reduced to two ints at the end. Same result as
+          CountingSort.minMax.
+        - ascendingRunEnd: compares array[i ... i+L) with array[i-1 ... i+L-1) at once; the first descending pair is the
+          first set lane of the mask. Same result as the scalar run detection of TimSort.
+        - partition: same contract as the Lomuto partition of QuickSort (pivot array[rightIndex] is moved to the returned
+          index, smaller or equal elements end up left of it, bigger elements right of it), see below.
+        The loops are branch-free except for the loop condition, and they read the memory sequentially - they run at
+        (close to) memory bandwidth.
+    */
+    private static final VectorSpecies<Integer> species = IntVector.SPECIES_PREFERRED;
+
+    // The partition works on 8 lanes, so that the table of compress shuffles has 2^8 entries
+    private static final VectorSpecies<Integer> partitionSpecies = IntVector.SPECIES_256;
+    private static final int partitionLanes = 8;
+    private static final int vectorPartitionThreshold = 1 << 10;
+    private static final IntVector laneBits =
+            IntVector.fromArray(partitionSpecies, new int[]{1, 2, 4, 8, 16, 32, 64, 128}, 0);
+    private static final VectorShuffle<Integer>[] compressShuffles = createCompressShuffles();
+    // Scratch space for the last elements of a partition: two vectors and fewer than one vector of unread elements.
+    // One per thread - the partition runs on several threads at once (parallel sorts, BatchSorter).
+    private static final ThreadLocal<int[]> restBuffers = ThreadLocal.withInitial(() -> new int[3 * partitionLanes]);
+
+    private VectorScans() {
+    }
+
+    static boolean isAccelerated() {
+        return species.vectorBitSize() >= 256;
+    }
+
+    // Min and max of array[from, to), as longs (same as CountingSort.minMax)
+    static long[] minMax(int[] array, int from, int to) {
+        int lanes = species.length();
+        int min = array[from];
+        int max = array[from];
+        int i = from;
+
+        if (to - from >= lanes) {
+            IntVector minVector = IntVector.fromArray(species, array, from);
+            IntVector maxVector = minVector;
+
+            for (i = from + lanes; i <= to - lanes; i += lanes) {
+                IntVector vector = IntVector.fromArray(species, array, i);
+                minVector = minVector.min(vector);
+                maxVector = maxVector.max(vector);
+            }
+
+            min = minVector.reduceLanes(VectorOperators.MIN);
+            max = maxVector.reduceLanes(VectorOperators.MAX);
+        }
+
+        // Tail - fewer elements than one vector
+        for (; i < to; ++i) {
+            min = Math.min(min, array[i]);
+            max = Math.max(max, array[i]);
+        }
+
+        return new long[]{min, max};
+    }
+
+    // The first index i in [from+1, to) with array[i] < array[i-1], or to if array[from, to) is non-descending
+    static int ascendingRunEnd(int[] array, int from, int to) {
+        int lanes = species.length();
+        int i = from + 1;
+
+        for (; i <= to - lanes; i += lanes) {
+            IntVector current = IntVector.fromArray(species, array, i);
+            IntVector previous = IntVector.fromArray(species, array, i - 1);
+
+            VectorMask<Integer> descending = current.compare(VectorOperators.LT, previous);
+            if (descending.anyTrue()) {
+                SortMetrics.comparedMany(i + descending.firstTrue() - from);
+                return i + descending.firstTrue();
+            }
+        }
+
+        for (; i < to; ++i) {
+            if (array[i] < array[i - 1]) {
+                SortMetrics.comparedMany(i - from);
+                return i;
+            }
+        }
+        SortMetrics.comparedMany(Math.max(0, to - 1 - from));
+        return to;
+    }
+
+    /*
+        Vectorized partition ("compress-store")
+
+        Every vector of 8 elements is compared with the pivot, which gives an 8-bit mask of the elements <= pivot. A
+        shuffle from a precomputed table (one per mask) moves these elements to the front of the vector and the bigger
+        ones behind them, and the vector is stored twice: at the left write position (the smaller elements land there)
+        and ending at the right write position (the bigger elements land there). The write positions move by the number
+        of smaller / bigger elements, so the lanes that were stored in excess are overwritten by the next stores.
+        (Java 17 has no VectorMask compress, which is why the shuffle table is used.)
+
+        It works in place: one vector from each end is loaded first, so there is always room for the two stores. Every
+        next vector is read from the side with less room left - the room never gets smaller than one vector.
+        At the end, the last elements and the two first vectors are placed one by one.
+
+        No branch depends on the data, so there are no mispredictions - the scalar partition mispredicts about half of
+        the comparisons on random data.
+        The order of the elements is not kept (the bigger elements are stored from the right end backwards), which would
+        turn sorted runs into patterns that partition badly later. So two counting passes check first how many elements
+        have to move; if it is less than 1/8 of the range, the data is presorted and the scalar partition is used.
+    */
+    static int partition(int[] array, int leftIndex, int rightIndex) {
+        // Small ranges: the checks and the setup cost more than the vectorized loop saves
+        if (rightIndex - leftIndex < vectorPartitionThreshold) {
+            return QuickSort.partition(array, leftIndex, rightIndex);
+        }
+
+        int pivot = array[rightIndex];
+        IntVector pivotVector = IntVector.broadcast(partitionSpecies, pivot);
+
+        // Presorted data is mostly partitioned already - the scalar partition keeps its order and predicts its branches
+        // well there, while the vectorized one would scramble it (and the later partitions of scrambled runs are bad).
+        if (isMostlyPartitioned(array, leftIndex, rightIndex, pivot)) {
+            return QuickSort.partition(array, leftIndex, rightIndex);
+        }
+
+        // Unread elements are [readLeft, readRight); the smaller elements are written to [leftIndex, writeLeft), the
+        // bigger ones to [writeRight, rightIndex)
+        int readLeft = leftIndex;
+        int readRight = rightIndex;
+        int writeLeft = leftIndex;
+        int writeRight = rightIndex;
+
+        IntVector firstLeft = IntVector.fromArray(partitionSpecies, array, readLeft);
+        readLeft += partitionLanes;
+        readRight -= partitionLanes;
+        IntVector firstRight = IntVector.fromArray(partitionSpecies, array, readRight);
+
+        while (readRight - readLeft >= partitionLanes) {
+            IntVector vector;
+            if (readLeft - writeLeft <= writeRight - readRight) {
+                vector = IntVector.fromArray(partitionSpecies, array, readLeft);
+                readLeft += partitionLanes;
+            } else {
+                readRight -= partitionLanes;
+                vector = IntVector.fromArray(partitionSpecies, array, readRight);
+            }
+
+            VectorMask<Integer> smaller = vector.compare(VectorOperators.LE, pivotVector);
+            int bits = IntVector.zero(partitionSpecies).blend(laneBits, smaller).reduceLanes(VectorOperators.ADD);
+            int smallerCount = Integer.bitCount(bits);
+
+            IntVector compressed = vector.rearrange(compressShuffles[bits]);
+            compressed.intoArray(array, writeLeft);
+            compressed.intoArray(array, writeRight - partitionLanes);
+            writeLeft += smallerCount;
+            writeRight -= partitionLanes - smallerCount;
+        }
+
+        // The rest: fewer than 8 unread elements and the two vectors loaded first
+        int[] rest = restBuffers.get();
+        int restLength = 2 * partitionLanes + readRight - readLeft;
+        firstLeft.intoArray(rest, 0);
+        firstRight.intoArray(rest, partitionLanes);
+        System.arraycopy(array, readLeft, rest, 2 * partitionLanes, readRight - readLeft);
+        for (int i = 0; i < restLength; ++i) {
+            int element = rest[i];
+            if (element <= pivot) {
+                array[writeLeft++] = element;
+            } else {
+                array[--writeRight] = element;
+            }
+        }
+
+        // Place the pivot at its correct position
+        array[rightIndex] = array[writeLeft];
+        array[writeLeft] = pivot;
+
+        // Every element was compared with the pivot once and written once (in place of a swap)
+        SortMetrics.comparedMany(rightIndex - leftIndex);
+        SortMetrics.moved(rightIndex - leftIndex + 1);
+        SortMetrics.partitioned(writeLeft - leftIndex, rightIndex - writeLeft);
+        return writeLeft;
+    }
+
+    // Counts the elements <= pivot, which gives the final position of the pivot, and then the bigger elements left of
+    // that position - the elements that the partition has to move. True if it is less than 1/8 of the range.
+    private static boolean isMostlyPartitioned(int[] array, int leftIndex, int rightIndex, int pivot) {
+        int smaller = countSmallerOrEqual(array, leftIndex, rightIndex, pivot);
+        int misplaced = smaller - countSmallerOrEqual(array, leftIndex, leftIndex + smaller, pivot);
+        return misplaced * 8 < rightIndex - leftIndex;
+    }
+
+    // Number of elements <= pivot in array[from, to)
+    private static int countSmallerOrEqual(int[] array, int from, int to, int pivot) {
+        int lanes = species.length();
+        IntVector pivotVector = IntVector.broadcast(species, pivot);
+        int count = 0;
+        int i = from;
+
+        for (; i <= to - lanes; i += lanes) {
+            count += IntVector.fromArray(species, array, i).compare(VectorOperators.LE, pivotVector).trueCount();
+        }
+        for (; i < to; ++i) {
+            if (array[i] <= pivot) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    // For every 8-bit mask: indexes of the set lanes first, then the indexes of the other lanes
+    private static VectorShuffle<Integer>[] createCompressShuffles() {
+        @SuppressWarnings("unchecked")
+        VectorShuffle<Integer>[] shuffles = (VectorShuffle<Integer>[]) new VectorShuffle<?>[1 << partitionLanes];
+        int[] indexes = new int[partitionLanes];
+
+        for (int mask = 0; mask < shuffles.length; ++mask) {
+            int count = 0;
+            for (int lane = 0; lane < partitionLanes; ++lane) {
+                if ((mask & (1 << lane)) != 0) {
+                    indexes[count++] = lane;
+                }
+            }
+            for (int lane = 0; lane < partitionLanes; ++lane) {
+                if ((mask & (1 << lane)) == 0) {
+                    indexes[count++] = lane;
+                }
+            }
+            shuffles[mask] = VectorShuffle.fromArray(partitionSpecies, indexes, 0);
+        }
+        return shuffles;
+    }
+}
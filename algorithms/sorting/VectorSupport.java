@@ -0,0 +1,39 @@
+package algorithms.sorting;
+
+final class VectorSupport {
+    /*
+        Runtime switch for the SIMD implementations in VectorScans
+
+        VectorScans is written with the Vector API (jdk.incubator.vector). In Java 17 it is an incubator module, so it is
+        resolved only if the JVM is started with --add-modules jdk.incubator.vector. The vectorized code is used if:
+        - the module is present (otherwise VectorScans is never loaded - this class does not refer to any of its types),
+        - the preferred vector shape of the CPU has at least 256 bits (AVX2, AVX-512, SVE...). On narrower hardware the
+          Vector API would fall back to a slow Java emulation, and the scalar code is faster,
+        - it is not switched off with -Dalgorithms.sorting.vector=false.
+
+        The Vector API is fast only after the JIT compiler has compiled the code (the first calls run interpreted and
+        are several times slower than the scalar code), so it pays off in long-running JVMs, not in one-shot programs.
+
+        The flag is a static final field: the JIT compiler removes the branch that is not taken, the scalar code stays
+        the fallback, with no cost when the vectorized code is not used.
+    */
+    static final boolean enabled = isAvailable();
+
+    private VectorSupport() {
+    }
+
+    private static boolean isAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty("algorithms.sorting.vector", "true"))) {
+            return false;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+
+        try {
+            return VectorScans.isAccelerated();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
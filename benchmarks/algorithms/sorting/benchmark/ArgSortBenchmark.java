@@ -0,0 +1,66 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.ArgSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+// ArgSort variants. The baseline is what callers do without it: sort boxed indexes with a Comparator on the keys.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+public class ArgSortBenchmark extends SortState {
+
+    @Param({"16", "1024", "65536", "1048576"})
+    public int size;
+
+    @Param
+    public InputShape shape;
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    InputShape shape() {
+        return shape;
+    }
+
+    @Benchmark
+    public Integer[] comparatorSort() {
+        int[] keys = input;
+        Integer[] indexes = new Integer[keys.length];
+        for (int i = 0; i < keys.length; ++i) {
+            indexes[i] = i;
+        }
+        Arrays.sort(indexes, Comparator.comparingInt(i -> keys[i]));
+        return indexes;
+    }
+
+    @Benchmark
+    public int[] mergeSort() {
+        return ArgSort.mergeSort(input);
+    }
+
+    @Benchmark
+    public int[] quickSort() {
+        return ArgSort.quickSort(input);
+    }
+
+    @Benchmark
+    public int[] countingSort() {
+        return ArgSort.countingSort(input);
+    }
+}
@@ -0,0 +1,103 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.BatchSorter;
+import algorithms.sorting.QuickSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Many small arrays: the input is cut into arrays of arrayLength elements. oneByOne sorts them on the calling thread,
+// taskPerArray submits every array to the common pool on its own, batchList and batchPacked use BatchSorter (with a
+// List<int[]> and with the packed offsets + data layout). The list variants include copying the arrays out of the input.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+public class BatchSorterBenchmark extends SortState {
+
+    @Param({"1048576"})
+    public int size;
+
+    @Param({"RANDOM"})
+    public InputShape shape;
+
+    @Param({"16", "256", "1000"})
+    public int arrayLength;
+
+    private final BatchSorter batchSorter = new BatchSorter();
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    InputShape shape() {
+        return shape;
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        return fresh();
+    }
+
+    @Benchmark
+    public List<int[]> oneByOne() {
+        List<int[]> arrays = split(fresh());
+        for (int[] array : arrays) {
+            QuickSort.introSort(array);
+        }
+        return arrays;
+    }
+
+    @Benchmark
+    public List<int[]> taskPerArray() throws Exception {
+        List<int[]> arrays = split(fresh());
+        List<Future<?>> futures = new ArrayList<>(arrays.size());
+        for (int[] array : arrays) {
+            futures.add(ForkJoinPool.commonPool().submit(() -> QuickSort.introSort(array)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return arrays;
+    }
+
+    @Benchmark
+    public List<int[]> batchList() throws Exception {
+        CompletableFuture<List<int[]>> sorted = batchSorter.submit(split(fresh()));
+        return sorted.get();
+    }
+
+    @Benchmark
+    public int[] batchPacked() throws Exception {
+        int[] data = fresh();
+        int[] offsets = new int[(data.length + arrayLength - 1) / arrayLength + 1];
+        for (int i = 1; i < offsets.length; ++i) {
+            offsets[i] = Math.min(data.length, i * arrayLength);
+        }
+        return batchSorter.submit(offsets, data).get();
+    }
+
+    private List<int[]> split(int[] data) {
+        List<int[]> arrays = new ArrayList<>(data.length / arrayLength + 1);
+        for (int from = 0; from < data.length; from += arrayLength) {
+            arrays.add(Arrays.copyOfRange(data, from, Math.min(data.length, from + arrayLength)));
+        }
+        return arrays;
+    }
+}
@@ -0,0 +1,48 @@
+package algorithms.sorting.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+public class BenchmarkMain {
+    /*
+        Entry point of target/benchmarks.jar. Accepts every regular JMH command line option and turns the GC/allocation
+        profiler on by default (gc.alloc.rate.norm is the number to look at for the scratch arrays of MergeSort and
+        CountingSort).
+
+        mvn -B -P benchmarks package
+        java -jar target/benchmarks.jar                                    // everything with the default sizes
+        java -jar target/benchmarks.jar MergeSort -p size=100000000       // one class at a specific size
+        java -jar target/benchmarks.jar QuickSort -p shape=SORTED,RANDOM  // only some of the input shapes
+        java -jar target/benchmarks.jar -l                                 // list the benchmarks
+
+        The default sizes of each class stop where the slowest algorithm of the class stops finishing in reasonable time
+        (the QuickSort variants pivot on the rightmost element and are quadratic on SORTED and REVERSED inputs); every
+        class accepts any size from 16 up to 100M with -p size=...
+    */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+
+        if (commandLine.shouldList()) {
+            new Runner(commandLine).list();
+            return;
+        }
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.CountingSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// CountingSort variants. Every InputShape keeps its values in [-size, size], so the range is at most 2 * size + 1.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+public class CountingSortBenchmark extends SortState {
+
+    @Param({"16", "1024", "65536", "1048576", "16777216", "100000000"})
+    public int size;
+
+    @Param
+    public InputShape shape;
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    InputShape shape() {
+        return shape;
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        return fresh();
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        int[] array = fresh();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] sort() {
+        int[] array = fresh();
+        CountingSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] simpleSort() {
+        int[] array = fresh();
+        CountingSort.simpleSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] boundedSort() {
+        int[] array = fresh();
+        CountingSort.boundedSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] parallelSort() {
+        int[] array = fresh();
+        CountingSort.parallelSort(array);
+        return array;
+    }
+}
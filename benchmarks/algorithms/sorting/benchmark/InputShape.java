@@ -0,0 +1,90 @@
+package algorithms.sorting.benchmark;
+
+import java.util.SplittableRandom;
+
+public enum InputShape {
+    /*
+        Input shapes used by the benchmarks. The first four are the worst, average, best and repeated-values cases of the
+        class comments, the rest are classic adversarial patterns.
+
+        - Every shape contains negative and positive numbers, and all values lie in [-size, size], so the range never
+          exceeds 2 * size + 1 and CountingSort can be measured on every shape.
+        - The generators are deterministic (fixed seed), so every algorithm is measured on exactly the same data.
+    */
+
+    // Strictly descending - the worst case
+    REVERSED {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = array.length / 2 - i;
+            }
+        }
+    },
+    // Uniformly random values - the average case
+    RANDOM {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = random.nextInt(-array.length, array.length + 1);
+            }
+        }
+    },
+    // Strictly ascending - the best case
+    SORTED {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = i - array.length / 2;
+            }
+        }
+    },
+    // Random values where each value occurs about 16 times
+    REPEATED {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            int bound = Math.max(1, array.length / 32);
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = random.nextInt(-bound, bound + 1);
+            }
+        }
+    },
+    // Ascending runs of length sqrt(N): 0 1 2 3 0 1 2 3 0 1 ...
+    SAWTOOTH {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            int period = Math.max(2, (int) Math.sqrt(array.length));
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = i % period;
+            }
+        }
+    },
+    // Ascending first half followed by a descending second half: 0 1 2 3 3 2 1 0
+    ORGAN_PIPE {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = Math.min(i, array.length - 1 - i);
+            }
+        }
+    },
+    // Random values picked from only 8 distinct keys
+    FEW_DISTINCT {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = random.nextInt(-4, 4);
+            }
+        }
+    };
+
+    private static final long SEED = 0x5EED_50F7L;
+
+    abstract void fill(int[] array, SplittableRandom random);
+
+    public int[] generate(int size) {
+        int[] array = new int[size];
+        fill(array, new SplittableRandom(SEED));
+        return array;
+    }
+}
@@ -0,0 +1,86 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.KWayMerger;
+import algorithms.sorting.TimSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// K sorted shards of size / K elements each. loserTree and parallelLoserTree merge them in one pass (KWayMerger),
+// pairwiseTimSort copies them one after the other into one array and lets TimSort merge the K runs pairwise
+// (log2 K passes).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+public class KWayMergeBenchmark extends SortState {
+
+    @Param({"1048576", "16777216"})
+    public int size;
+
+    @Param({"RANDOM", "FEW_DISTINCT"})
+    public InputShape shape;
+
+    @Param({"8", "64", "1024"})
+    public int shards;
+
+    private int[][] inputs;
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    InputShape shape() {
+        return shape;
+    }
+
+    @Setup(Level.Trial)
+    public void sortShards() {
+        int[] data = shape.generate(size);
+        inputs = new int[shards][];
+        for (int s = 0; s < shards; ++s) {
+            inputs[s] = Arrays.copyOfRange(data, (int) ((long) size * s / shards), (int) ((long) size * (s + 1) / shards));
+            Arrays.sort(inputs[s]);
+        }
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        return fresh();
+    }
+
+    @Benchmark
+    public int[] loserTree() {
+        return KWayMerger.merge(inputs);
+    }
+
+    @Benchmark
+    public int[] parallelLoserTree() {
+        return KWayMerger.parallelMerge(inputs);
+    }
+
+    @Benchmark
+    public int[] pairwiseTimSort() {
+        int[] array = work;
+        int position = 0;
+        for (int[] input : inputs) {
+            System.arraycopy(input, 0, array, position, input.length);
+            position += input.length;
+        }
+        TimSort.sort(array);
+        return array;
+    }
+}
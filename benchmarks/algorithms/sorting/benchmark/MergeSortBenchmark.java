@@ -0,0 +1,125 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.MergeSort;
+import algorithms.sorting.TimSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// MergeSort variants.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+public class MergeSortBenchmark extends SortState {
+
+    @Param({"16", "1024", "65536", "1048576", "16777216", "100000000"})
+    public int size;
+
+    @Param
+    public InputShape shape;
+
+    // Caller-provided scratch buffer for the allocation-free benchmarks
+    private int[] buffer;
+
+    @Setup(Level.Trial)
+    public void allocateBuffer() {
+        buffer = new int[size];
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    InputShape shape() {
+        return shape;
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        return fresh();
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        int[] array = fresh();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] recursiveSort() {
+        int[] array = fresh();
+        MergeSort.recursiveSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] inPlaceSort() {
+        int[] array = fresh();
+        MergeSort.inPlaceSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] iterativeSort() {
+        int[] array = fresh();
+        MergeSort.iterativeSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] parallelSort() {
+        int[] array = fresh();
+        MergeSort.parallelSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] bufferedSort() {
+        int[] array = fresh();
+        MergeSort.bufferedSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] bufferedIterativeSort() {
+        int[] array = fresh();
+        MergeSort.bufferedIterativeSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] bufferedSortReusedBuffer() {
+        int[] array = fresh();
+        MergeSort.bufferedSort(array, buffer);
+        return array;
+    }
+
+    @Benchmark
+    public int[] bufferedIterativeSortReusedBuffer() {
+        int[] array = fresh();
+        MergeSort.bufferedIterativeSort(array, buffer);
+        return array;
+    }
+
+    @Benchmark
+    public int[] timSort() {
+        int[] array = fresh();
+        TimSort.sort(array);
+        return array;
+    }
+}
@@ -0,0 +1,100 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.OffHeapSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// OffHeapSort on a direct little-endian buffer of int keys. The baseline copies the keys to the heap, sorts them with
+// Arrays.sort and copies them back.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+@State(Scope.Thread)
+public class OffHeapSortBenchmark {
+
+    @Param({"16", "1024", "65536", "1048576", "16777216"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "FEW_DISTINCT"})
+    public InputShape shape;
+
+    @Param({"4", "16"})
+    public int stride;
+
+    private ByteBuffer input;
+    private ByteBuffer work;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        int[] keys = shape.generate(size);
+
+        input = ByteBuffer.allocateDirect(size * stride).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < size; ++i) {
+            input.putInt(i * stride, keys[i]);
+        }
+        work = ByteBuffer.allocateDirect(size * stride).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private ByteBuffer fresh() {
+        work.put(0, input, 0, input.capacity());
+        return work;
+    }
+
+    @Benchmark
+    public ByteBuffer copyOnly() {
+        return fresh();
+    }
+
+    // Only the keys are sorted (the payload of stride > 4 is not moved) - the lower bound of a heap round trip
+    @Benchmark
+    public ByteBuffer heapCopyArraysSort() {
+        ByteBuffer buffer = fresh();
+        int[] keys = new int[size];
+        for (int i = 0; i < size; ++i) {
+            keys[i] = buffer.getInt(i * stride);
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < size; ++i) {
+            buffer.putInt(i * stride, keys[i]);
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer introSort() {
+        ByteBuffer buffer = fresh();
+        OffHeapSort.introSort(buffer, Integer.BYTES, stride);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer mergeSort() {
+        ByteBuffer buffer = fresh();
+        OffHeapSort.mergeSort(buffer, Integer.BYTES, stride);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer countingSort() {
+        ByteBuffer buffer = fresh();
+        OffHeapSort.countingSort(buffer, Integer.BYTES, stride);
+        return buffer;
+    }
+}
@@ -0,0 +1,63 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.QuickSort;
+import algorithms.sorting.QuickSort.PartitionScheme;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The partition schemes of QuickSort (Lomuto, Hoare, branch-free block partitioning) in the same drivers. Only the shapes
+// where the single-element pivots are not quadratic: the block partition is meant for data without order, where the
+// other two mispredict about every second comparison.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+public class PartitionSchemeBenchmark extends SortState {
+
+    @Param({"1024", "65536", "1048576"})
+    public int size;
+
+    @Param({"RANDOM", "REPEATED"})
+    public InputShape shape;
+
+    @Param
+    public PartitionScheme scheme;
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    InputShape shape() {
+        return shape;
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        return fresh();
+    }
+
+    @Benchmark
+    public int[] optimizedSort() {
+        int[] array = fresh();
+        QuickSort.optimizedSort(array, scheme);
+        return array;
+    }
+
+    @Benchmark
+    public int[] hybridSort() {
+        int[] array = fresh();
+        QuickSort.hybridSort(array, scheme);
+        return array;
+    }
+}
@@ -0,0 +1,133 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.CountingSort;
+import algorithms.sorting.MergeSort;
+import algorithms.sorting.QuickSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// long[], double[] and short[] specializations. The inputs are the int shapes widened (long, double) or truncated (short),
+// so they keep the order of the shape.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+@State(Scope.Thread)
+public class PrimitiveSortBenchmark {
+
+    @Param({"16", "1024", "65536", "1048576", "16777216"})
+    public int size;
+
+    @Param
+    public InputShape shape;
+
+    private long[] longInput;
+    private long[] longWork;
+    private double[] doubleInput;
+    private double[] doubleWork;
+    private short[] shortInput;
+    private short[] shortWork;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        int[] input = shape.generate(size);
+
+        longInput = new long[size];
+        doubleInput = new double[size];
+        shortInput = new short[size];
+        for (int i = 0; i < size; ++i) {
+            longInput[i] = (long) input[i] << 24;
+            doubleInput[i] = input[i] / 3.0;
+            shortInput[i] = (short) (input[i] >> Math.max(0, 32 - Integer.numberOfLeadingZeros(size) - 15));
+        }
+
+        longWork = new long[size];
+        doubleWork = new double[size];
+        shortWork = new short[size];
+    }
+
+    private long[] freshLongs() {
+        System.arraycopy(longInput, 0, longWork, 0, size);
+        return longWork;
+    }
+
+    private double[] freshDoubles() {
+        System.arraycopy(doubleInput, 0, doubleWork, 0, size);
+        return doubleWork;
+    }
+
+    private short[] freshShorts() {
+        System.arraycopy(shortInput, 0, shortWork, 0, size);
+        return shortWork;
+    }
+
+    @Benchmark
+    public long[] arraysSortLong() {
+        long[] array = freshLongs();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public long[] introSortLong() {
+        long[] array = freshLongs();
+        QuickSort.introSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public long[] bufferedSortLong() {
+        long[] array = freshLongs();
+        MergeSort.bufferedSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public double[] arraysSortDouble() {
+        double[] array = freshDoubles();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public double[] introSortDouble() {
+        double[] array = freshDoubles();
+        QuickSort.introSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public double[] bufferedSortDouble() {
+        double[] array = freshDoubles();
+        MergeSort.bufferedSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public short[] arraysSortShort() {
+        short[] array = freshShorts();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public short[] countingSortShort() {
+        short[] array = freshShorts();
+        CountingSort.sort(array);
+        return array;
+    }
+}
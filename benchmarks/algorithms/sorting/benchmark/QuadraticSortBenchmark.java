@@ -0,0 +1,109 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.BubbleSort;
+import algorithms.sorting.InsertionSort;
+import algorithms.sorting.SelectionSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// O(N^2) algorithms: BubbleSort, SelectionSort and InsertionSort.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+public class QuadraticSortBenchmark extends SortState {
+
+    @Param({"16", "1024", "16384"})
+    public int size;
+
+    @Param
+    public InputShape shape;
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    InputShape shape() {
+        return shape;
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        return fresh();
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        int[] array = fresh();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] bubbleSort() {
+        int[] array = fresh();
+        BubbleSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] bubbleImprovedSort() {
+        int[] array = fresh();
+        BubbleSort.improvedSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] bubbleRecursiveSort() {
+        int[] array = fresh();
+        BubbleSort.recursiveSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] selectionSort() {
+        int[] array = fresh();
+        SelectionSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] selectionStableSort() {
+        int[] array = fresh();
+        SelectionSort.stableSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] insertionSort() {
+        int[] array = fresh();
+        InsertionSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] insertionRecursiveSort() {
+        int[] array = fresh();
+        InsertionSort.recursiveSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] insertionBinarySort() {
+        int[] array = fresh();
+        InsertionSort.binarySort(array);
+        return array;
+    }
+}
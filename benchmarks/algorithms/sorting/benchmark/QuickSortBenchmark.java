@@ -0,0 +1,108 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.QuickSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// QuickSort variants. All of them pivot on the rightmost element, so they are quadratic on SORTED and REVERSED inputs
+// (and, apart from threeWaySort, on FEW_DISTINCT inputs).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+public class QuickSortBenchmark extends SortState {
+
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    @Param
+    public InputShape shape;
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    InputShape shape() {
+        return shape;
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        return fresh();
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        int[] array = fresh();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] sort() {
+        int[] array = fresh();
+        QuickSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] optimizedSort() {
+        int[] array = fresh();
+        QuickSort.optimizedSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] hybridSort() {
+        int[] array = fresh();
+        QuickSort.hybridSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] threeWaySort() {
+        int[] array = fresh();
+        QuickSort.threeWaySort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] iterativeSort() {
+        int[] array = fresh();
+        QuickSort.iterativeSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] parallelSort() {
+        int[] array = fresh();
+        QuickSort.parallelSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] introSort() {
+        int[] array = fresh();
+        QuickSort.introSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] pdqSort() {
+        int[] array = fresh();
+        QuickSort.pdqSort(array);
+        return array;
+    }
+}
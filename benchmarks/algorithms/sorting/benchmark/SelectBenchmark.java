@@ -0,0 +1,87 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.QuickSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// QuickSort selection: select / partialSort / topK / multiSelect against a full sort. k is size/100 for the
+// partial sort and top-K, the median for select, and the 1st, 5th, ..., 99th percentiles for multiSelect.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+public class SelectBenchmark extends SortState {
+
+    @Param({"16", "1024", "65536", "1048576", "16777216", "100000000"})
+    public int size;
+
+    @Param
+    public InputShape shape;
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    InputShape shape() {
+        return shape;
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        return fresh();
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        int[] array = fresh();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] introSort() {
+        int[] array = fresh();
+        QuickSort.introSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int select() {
+        int[] array = fresh();
+        return QuickSort.select(array, array.length / 2);
+    }
+
+    @Benchmark
+    public int[] partialSort() {
+        int[] array = fresh();
+        QuickSort.partialSort(array, Math.max(1, array.length / 100));
+        return array;
+    }
+
+    @Benchmark
+    public int[] topK() {
+        return QuickSort.topK(fresh(), Math.max(1, size / 100));
+    }
+
+    @Benchmark
+    public int[] multiSelect() {
+        int[] array = fresh();
+        int[] ranks = {1, 5, 10, 25, 50, 75, 90, 95, 99};
+        for (int i = 0; i < ranks.length; ++i) {
+            ranks[i] = (int) ((long) ranks[i] * (array.length - 1) / 100);
+        }
+        return QuickSort.multiSelect(array, ranks);
+    }
+}
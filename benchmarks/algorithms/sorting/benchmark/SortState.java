@@ -0,0 +1,32 @@
+package algorithms.sorting.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public abstract class SortState {
+    /*
+        Every benchmark sorts a fresh copy of the same generated input. The copy goes into a preallocated work array with
+        System.arraycopy, so the copy itself does not allocate and does not show up in the -prof gc numbers; its time is
+        reported separately by the copyOnly benchmark of each class and can be subtracted from the results.
+    */
+    int[] input;
+    int[] work;
+
+    abstract int size();
+
+    abstract InputShape shape();
+
+    @Setup(Level.Trial)
+    public void generate() {
+        input = shape().generate(size());
+        work = new int[input.length];
+    }
+
+    int[] fresh() {
+        System.arraycopy(input, 0, work, 0, input.length);
+        return work;
+    }
+}
@@ -0,0 +1,77 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.QuickSort;
+import algorithms.sorting.SortedIntBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Online ingestion: the input arrives in `refreshes` chunks, and after every chunk the median is queried (a rolling
+// leaderboard). resortEveryChunk sorts everything received so far again, sortedIntBuffer appends the chunk as a run.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+public class SortedIntBufferBenchmark extends SortState {
+
+    @Param({"65536", "1048576"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED"})
+    public InputShape shape;
+
+    @Param({"16", "128"})
+    public int refreshes;
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    InputShape shape() {
+        return shape;
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        return fresh();
+    }
+
+    @Benchmark
+    public long resortEveryChunk() {
+        int[] data = fresh();
+        int chunk = size / refreshes;
+        long checksum = 0;
+
+        for (int end = chunk; end <= size; end += chunk) {
+            int[] received = Arrays.copyOf(data, end);
+            QuickSort.introSort(received);
+            checksum += received[end / 2];
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long sortedIntBuffer() {
+        int[] data = fresh();
+        int chunk = size / refreshes;
+        SortedIntBuffer buffer = new SortedIntBuffer();
+        long checksum = 0;
+
+        for (int from = 0; from + chunk <= size; from += chunk) {
+            buffer.addAll(data, from, from + chunk);
+            checksum += buffer.select(buffer.size() / 2);
+        }
+        return checksum;
+    }
+}
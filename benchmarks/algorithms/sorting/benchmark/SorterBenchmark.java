@@ -0,0 +1,72 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.QuickSort;
+import algorithms.sorting.Sorter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Sorter.sort (automatically chosen algorithm, the profiling scan included) against the general-purpose sorts it
+// falls back to.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+public class SorterBenchmark extends SortState {
+
+    @Param({"16", "1024", "65536", "1048576", "16777216"})
+    public int size;
+
+    @Param
+    public InputShape shape;
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    InputShape shape() {
+        return shape;
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        return fresh();
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        int[] array = fresh();
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] pdqSort() {
+        int[] array = fresh();
+        QuickSort.pdqSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] sorterSort() {
+        int[] array = fresh();
+        Sorter.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public Sorter.Decision decideOnly() {
+        return Sorter.decide(fresh());
+    }
+}
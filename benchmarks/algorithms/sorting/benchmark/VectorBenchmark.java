@@ -0,0 +1,89 @@
+package algorithms.sorting.benchmark;
+
+import algorithms.sorting.BubbleSort;
+import algorithms.sorting.CountingSort;
+import algorithms.sorting.QuickSort;
+import algorithms.sorting.TimSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The sorts that use the SIMD scans (VectorScans), with vector = true and with the scalar fallback (vector = false).
+// Every combination of parameters runs in its own fork, so the switch is set before the sorting classes are loaded.
+// bubbleImprovedSort only runs on SORTED input (it is quadratic on the other shapes), where it is just the sortedness
+// check.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class VectorBenchmark extends SortState {
+
+    @Param({"1024", "65536", "1048576", "16777216"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "SAWTOOTH", "FEW_DISTINCT"})
+    public InputShape shape;
+
+    @Param({"true", "false"})
+    public boolean vector;
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    InputShape shape() {
+        return shape;
+    }
+
+    @Setup(Level.Trial)
+    public void selectImplementation() {
+        System.setProperty("algorithms.sorting.vector", Boolean.toString(vector));
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        return fresh();
+    }
+
+    @Benchmark
+    public int[] introSort() {
+        int[] array = fresh();
+        QuickSort.introSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] countingSort() {
+        int[] array = fresh();
+        CountingSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] timSort() {
+        int[] array = fresh();
+        TimSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] bubbleImprovedSort() {
+        int[] array = fresh();
+        if (shape == InputShape.SORTED) {
+            BubbleSort.improvedSort(array);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,72 @@
+package algorithms.sorting;
+
+import algorithms.sorting.TestInputs.Shape;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArgSortTest {
+    /*
+        All versions of ArgSort are stable, so there is exactly one correct permutation: the indexes ordered by key and,
+        for equal keys, by index. It is computed with the stable object sort of Arrays.
+    */
+    private static final int maxSize = 131075;
+
+    @Test
+    void mergeSort() {
+        check(ArgSort::mergeSort);
+    }
+
+    @Test
+    void quickSort() {
+        check(ArgSort::quickSort);
+    }
+
+    @Test
+    void countingSort() {
+        check(ArgSort::countingSort);
+    }
+
+    @Test
+    void reorderMovesTheRecords() {
+        int[] keys = {30, 10, 20, 10};
+        String[] records = {"thirty", "ten", "twenty", "ten again"};
+
+        ArgSort.reorder(records, ArgSort.mergeSort(keys));
+        assertArrayEquals(new String[]{"ten", "ten again", "twenty", "thirty"}, records);
+    }
+
+    @Test
+    void permutationOfWrongLengthIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ArgSort.mergeSort(new int[3], new int[2]));
+        assertThrows(IllegalArgumentException.class, () -> ArgSort.reorder(new String[3], new int[2]));
+    }
+
+    private static void check(Function<int[], int[]> argSort) {
+        for (Shape shape : Shape.values()) {
+            for (int size : TestInputs.sizes) {
+                if (size > maxSize) {
+                    break;
+                }
+                int[] keys = TestInputs.input(shape, size);
+
+                int[] expected = IntStream.range(0, size).boxed()
+                        .sorted(Comparator.comparingInt(i -> keys[i]))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                int[] permutation = argSort.apply(keys);
+
+                assertArrayEquals(expected, permutation, shape + " N = " + size);
+                assertArrayEquals(TestInputs.input(shape, size), keys, "the keys must not change");
+                assertArrayEquals(TestInputs.expected(shape, size),
+                        Arrays.stream(permutation).map(i -> keys[i]).toArray(), shape + " N = " + size);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package algorithms.sorting;
+
+import algorithms.sorting.TestInputs.Shape;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchSorterTest {
+    /*
+        BatchSorter on batches cut from the inputs of TestInputs: lists of arrays of random lengths (some of them empty)
+        and packed arrays with offsets, each compared with the pieces sorted by Arrays.sort.
+    */
+    private static final int size = 131075;
+
+    @Test
+    void sortsListsOfArrays() throws Exception {
+        BatchSorter sorter = new BatchSorter();
+
+        for (Shape shape : Shape.values()) {
+            for (int arrays : new int[]{1, 5, 100, 5000}) {
+                int[][] batch = pieces(TestInputs.input(shape, size), arrays, new Random(arrays));
+                List<int[]> list = new ArrayList<>(Arrays.asList(batch));
+                List<int[]> expected = new ArrayList<>();
+                for (int[] array : batch) {
+                    int[] sorted = array.clone();
+                    Arrays.sort(sorted);
+                    expected.add(sorted);
+                }
+
+                CompletableFuture<List<int[]>> future = sorter.submit(list);
+                assertSame(list, future.get());
+                for (int i = 0; i < batch.length; ++i) {
+                    assertArrayEquals(expected.get(i), list.get(i), shape + " array " + i + " of " + arrays);
+                }
+            }
+        }
+        assertEquals(0, sorter.pendingElements());
+    }
+
+    @Test
+    void sortsPackedArrays() throws Exception {
+        // A small pool and a small limit, so that batches wait for each other
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            BatchSorter sorter = new BatchSorter(pool, 50_000);
+
+            for (Shape shape : Shape.values()) {
+                int[] data = TestInputs.input(shape, size);
+                int[] offsets = offsets(size, 1000, new Random(shape.ordinal()));
+
+                int[] expected = data.clone();
+                for (int i = 0; i + 1 < offsets.length; ++i) {
+                    Arrays.sort(expected, offsets[i], offsets[i + 1]);
+                }
+
+                assertSame(data, sorter.submit(offsets, data).get());
+                assertArrayEquals(expected, data, shape.toString());
+            }
+            assertEquals(0, sorter.pendingElements());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void waitingBatchesAreAdmittedInOrder() throws Exception {
+        // The only worker is blocked, so the first batch keeps its permits until the latch opens
+        ForkJoinPool pool = new ForkJoinPool(1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            pool.execute(() -> {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            BatchSorter sorter = new BatchSorter(pool, 100);
+            CompletableFuture<List<int[]>> first = sorter.submit(List.of(new int[]{3, 2, 1}, new int[10]));
+
+            // A batch of the whole limit waits for the first one, a small batch submitted after it must not overtake it
+            List<CompletableFuture<List<int[]>>> later = new ArrayList<>();
+            Thread large = submitter(sorter, List.of(new int[100]), later);
+            awaitWaiting(large);
+            Thread small = submitter(sorter, List.of(new int[]{2, 1}), later);
+            awaitWaiting(small);
+
+            blocker.countDown();
+            large.join();
+            small.join();
+            assertEquals(List.of(1, 2, 3), Arrays.stream(first.get().get(0)).boxed().toList());
+            for (CompletableFuture<List<int[]>> future : later) {
+                future.get();
+            }
+            assertEquals(0, sorter.pendingElements());
+        } finally {
+            blocker.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void invalidBatchesAreRejected() {
+        BatchSorter sorter = new BatchSorter();
+
+        assertThrows(IllegalArgumentException.class, () -> new BatchSorter(ForkJoinPool.commonPool(), 0));
+        assertThrows(IllegalArgumentException.class, () -> sorter.submit(new int[]{0, 5, 3}, new int[5]));
+        assertThrows(IllegalArgumentException.class, () -> sorter.submit(new int[]{0, 6}, new int[5]));
+        assertThrows(IllegalArgumentException.class, () -> sorter.submit(Arrays.asList(new int[1], null)));
+        assertEquals(0, sorter.pendingElements());
+    }
+
+    // Cuts the array into k consecutive pieces of random lengths (some of them may be empty)
+    private static Thread submitter(BatchSorter sorter, List<int[]> batch, List<CompletableFuture<List<int[]>>> futures) {
+        Thread thread = new Thread(() -> {
+            try {
+                CompletableFuture<List<int[]>> future = sorter.submit(batch);
+                synchronized (futures) {
+                    futures.add(future);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    // Waits until the thread blocks in submit (fails if it returns instead)
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(thread.isAlive(), "submit returned without waiting");
+            Thread.sleep(1);
+        }
+    }
+
+    private static int[][] pieces(int[] array, int k, Random random) {
+        int[] offsets = offsets(array.length, k, random);
+        int[][] pieces = new int[offsets.length - 1][];
+        for (int i = 0; i < pieces.length; ++i) {
+            pieces[i] = Arrays.copyOfRange(array, offsets[i], offsets[i + 1]);
+        }
+        return pieces;
+    }
+
+    // k + 1 sorted offsets from 0 to size
+    private static int[] offsets(int size, int k, Random random) {
+        int[] offsets = new int[k + 1];
+        for (int i = 1; i < k; ++i) {
+            offsets[i] = random.nextInt(size + 1);
+        }
+        offsets[k] = size;
+        Arrays.sort(offsets);
+        return offsets;
+    }
+}
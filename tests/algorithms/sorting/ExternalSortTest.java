@@ -0,0 +1,98 @@
+package algorithms.sorting;
+
+import algorithms.sorting.TestInputs.Shape;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExternalSortTest {
+    /*
+        ExternalSort on files of every shape, in both byte orders, with chunks small enough to produce a few runs and
+        more runs than one merge pass takes. The run files are created next to the output, so the temporary directory
+        of the test also shows that they are all deleted.
+    */
+    private static final int[] fileSizes = {0, 1, 2, 1000, 65537};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void sortsLikeArraysSort() throws IOException {
+        for (Shape shape : Shape.values()) {
+            for (int size : fileSizes) {
+                for (ByteOrder byteOrder : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+                    // One run per chunk: a single run, a few runs, and (for two shapes, it is slow) more runs than one
+                    // merge pass takes (512)
+                    int[] chunkSizes = (shape == Shape.RANDOM || shape == Shape.ALL_EQUAL)
+                            ? new int[]{size + 1, 1000, 100}
+                            : new int[]{size + 1, 1000};
+                    for (int chunkElements : chunkSizes) {
+                        Path input = directory.resolve("input.bin");
+                        Path output = directory.resolve("output.bin");
+                        Files.write(input, bytes(TestInputs.input(shape, size), byteOrder));
+
+                        ExternalSort.sort(input, output, byteOrder, chunkElements);
+
+                        assertArrayEquals(TestInputs.expected(shape, size), ints(Files.readAllBytes(output), byteOrder),
+                                shape + " N = " + size + " " + byteOrder + " chunk " + chunkElements);
+                    }
+                }
+            }
+        }
+        assertEquals(List.of("input.bin", "output.bin"), files(), "temporary runs must be deleted");
+    }
+
+    @Test
+    void sortsInPlace() throws IOException {
+        Path file = directory.resolve("data.bin");
+        Files.write(file, bytes(TestInputs.input(Shape.RANDOM, 65537), ByteOrder.LITTLE_ENDIAN));
+
+        ExternalSort.sort(file, file);
+
+        assertArrayEquals(TestInputs.expected(Shape.RANDOM, 65537),
+                ints(Files.readAllBytes(file), ByteOrder.LITTLE_ENDIAN));
+        assertEquals(List.of("data.bin"), files());
+    }
+
+    @Test
+    void invalidInputIsRejected() throws IOException {
+        Path input = directory.resolve("input.bin");
+        Files.write(input, new byte[]{1, 2, 3, 4, 5});
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ExternalSort.sort(input, directory.resolve("output.bin"), ByteOrder.LITTLE_ENDIAN, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> ExternalSort.sort(input, directory.resolve("output.bin"), ByteOrder.LITTLE_ENDIAN, 0));
+        assertEquals(List.of("input.bin"), files(), "temporary runs must be deleted");
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static byte[] bytes(int[] values, ByteOrder byteOrder) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES).order(byteOrder);
+        buffer.asIntBuffer().put(values);
+        return buffer.array();
+    }
+
+    private static int[] ints(byte[] bytes, ByteOrder byteOrder) {
+        int[] values = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).order(byteOrder).asIntBuffer().get(values);
+        return values;
+    }
+}
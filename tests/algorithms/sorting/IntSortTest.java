@@ -0,0 +1,148 @@
+package algorithms.sorting;
+
+import algorithms.sorting.TestInputs.Shape;
+import org.junit.jupiter.api.DynamicContainer;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntSortTest {
+    /*
+        Every int[] sort entry point against Arrays.sort, on every shape of TestInputs and every size up to its limit:
+        - the quadratic sorts (selection, bubble, insertion) and the teaching quicksorts with the rightmost pivot (which
+          are quadratic on sorted and all-equal input) up to a few thousand elements,
+        - the O(N logN) and linear sorts up to 2^17,
+        - the parallel sorts (and pdqSort and Sorter as the sequential reference) also above the parallel partition
+          cutoff (2^20).
+        The plain counting sorts get only the shapes with a bounded range, as documented.
+    */
+    private static final int quadraticLimit = 257;
+    private static final int naiveQuickSortLimit = 2100;
+    private static final int defaultLimit = 131075;
+    private static final int largeLimit = Integer.MAX_VALUE;
+
+    private static final class Entry {
+        final String name;
+        final Consumer<int[]> sort;
+        final int maxSize;
+        final Predicate<Shape> shapes;
+
+        Entry(String name, Consumer<int[]> sort, int maxSize, Predicate<Shape> shapes) {
+            this.name = name;
+            this.sort = sort;
+            this.maxSize = maxSize;
+            this.shapes = shapes;
+        }
+    }
+
+    private static final Predicate<Shape> allShapes = shape -> true;
+    private static final Predicate<Shape> boundedRange = shape -> shape.boundedRange;
+
+    private static List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>();
+        entries.add(new Entry("SelectionSort.sort", SelectionSort::sort, quadraticLimit, allShapes));
+        entries.add(new Entry("SelectionSort.stableSort", SelectionSort::stableSort, quadraticLimit, allShapes));
+        entries.add(new Entry("BubbleSort.sort", BubbleSort::sort, quadraticLimit, allShapes));
+        entries.add(new Entry("BubbleSort.improvedSort", BubbleSort::improvedSort, quadraticLimit, allShapes));
+        entries.add(new Entry("BubbleSort.recursiveSort", BubbleSort::recursiveSort, quadraticLimit, allShapes));
+        entries.add(new Entry("InsertionSort.sort", InsertionSort::sort, quadraticLimit, allShapes));
+        entries.add(new Entry("InsertionSort.recursiveSort", InsertionSort::recursiveSort, quadraticLimit, allShapes));
+        entries.add(new Entry("InsertionSort.binarySort", InsertionSort::binarySort, quadraticLimit, allShapes));
+
+        entries.add(new Entry("QuickSort.sort", QuickSort::sort, naiveQuickSortLimit, allShapes));
+        entries.add(new Entry("QuickSort.optimizedSort", QuickSort::optimizedSort, naiveQuickSortLimit, allShapes));
+        entries.add(new Entry("QuickSort.hybridSort", QuickSort::hybridSort, naiveQuickSortLimit, allShapes));
+        for (QuickSort.PartitionScheme scheme : QuickSort.PartitionScheme.values()) {
+            entries.add(new Entry("QuickSort.optimizedSort(" + scheme + ")",
+                    array -> QuickSort.optimizedSort(array, scheme), naiveQuickSortLimit, allShapes));
+            entries.add(new Entry("QuickSort.hybridSort(" + scheme + ")",
+                    array -> QuickSort.hybridSort(array, scheme), naiveQuickSortLimit, allShapes));
+        }
+        entries.add(new Entry("QuickSort.iterativeSort", QuickSort::iterativeSort, naiveQuickSortLimit, allShapes));
+        entries.add(new Entry("QuickSort.threeWaySort", QuickSort::threeWaySort, naiveQuickSortLimit, allShapes));
+
+        entries.add(new Entry("QuickSort.introSort", QuickSort::introSort, defaultLimit, allShapes));
+        entries.add(new Entry("QuickSort.pdqSort", QuickSort::pdqSort, largeLimit, allShapes));
+        entries.add(new Entry("QuickSort.parallelSort", QuickSort::parallelSort, largeLimit, allShapes));
+        entries.add(new Entry("QuickSort.partialSort(N)", array -> QuickSort.partialSort(array, array.length),
+                defaultLimit, allShapes));
+        entries.add(new Entry("HeapSort.sort", HeapSort::sort, defaultLimit, allShapes));
+
+        entries.add(new Entry("MergeSort.recursiveSort", MergeSort::recursiveSort, defaultLimit, allShapes));
+        entries.add(new Entry("MergeSort.iterativeSort", MergeSort::iterativeSort, defaultLimit, allShapes));
+        entries.add(new Entry("MergeSort.bufferedSort", MergeSort::bufferedSort, defaultLimit, allShapes));
+        entries.add(new Entry("MergeSort.bufferedSort(longer buffer)",
+                array -> MergeSort.bufferedSort(array, new int[array.length + 7]), defaultLimit, allShapes));
+        entries.add(new Entry("MergeSort.bufferedIterativeSort", MergeSort::bufferedIterativeSort, defaultLimit,
+                allShapes));
+        entries.add(new Entry("MergeSort.inPlaceSort", MergeSort::inPlaceSort, defaultLimit, allShapes));
+        entries.add(new Entry("MergeSort.parallelSort", MergeSort::parallelSort, largeLimit, allShapes));
+        entries.add(new Entry("TimSort.sort", TimSort::sort, defaultLimit, allShapes));
+
+        entries.add(new Entry("RadixSort.sort", RadixSort::sort, defaultLimit, allShapes));
+        entries.add(new Entry("RadixSort.msdSort", RadixSort::msdSort, defaultLimit, allShapes));
+        entries.add(new Entry("CountingSort.sort", CountingSort::sort, defaultLimit, boundedRange));
+        entries.add(new Entry("CountingSort.simpleSort", CountingSort::simpleSort, defaultLimit, boundedRange));
+        entries.add(new Entry("CountingSort.boundedSort", CountingSort::boundedSort, defaultLimit, allShapes));
+        entries.add(new Entry("CountingSort.boundedSort(small budget)",
+                array -> CountingSort.boundedSort(array, 4L * array.length + 64), defaultLimit, allShapes));
+        entries.add(new Entry("CountingSort.boundedSort(tiny budget)",
+                array -> CountingSort.boundedSort(array, 64), defaultLimit, allShapes));
+        entries.add(new Entry("CountingSort.parallelSort", CountingSort::parallelSort, largeLimit, allShapes));
+
+        entries.add(new Entry("Sorter.sort", Sorter::sort, largeLimit, allShapes));
+        return entries;
+    }
+
+    @TestFactory
+    Stream<DynamicContainer> sortsLikeArraysSort() {
+        return entries().stream().map(entry -> DynamicContainer.dynamicContainer(entry.name,
+                Stream.of(Shape.values())
+                        .filter(entry.shapes)
+                        .map(shape -> DynamicTest.dynamicTest(shape.toString(), () -> check(entry, shape)))));
+    }
+
+    private static void check(Entry entry, Shape shape) {
+        for (int size : TestInputs.sizes) {
+            if (size > entry.maxSize) {
+                break;
+            }
+
+            int[] array = TestInputs.input(shape, size);
+            entry.sort.accept(array);
+            assertArrayEquals(TestInputs.expected(shape, size), array, entry.name + " " + shape + " N = " + size);
+        }
+    }
+
+    @Test
+    void runsWithSeveralWorkers() {
+        // The parallel code paths only run with more than one worker (see the surefire configuration)
+        assertTrue(ForkJoinPool.getCommonPoolParallelism() > 1,
+                "common pool parallelism is " + ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    @Test
+    void plainCountingSortRejectsTooBigRange() {
+        int[] array = {Integer.MIN_VALUE, 0, Integer.MAX_VALUE};
+
+        assertThrows(IllegalArgumentException.class, () -> CountingSort.sort(array.clone()));
+        assertThrows(IllegalArgumentException.class, () -> CountingSort.simpleSort(array.clone()));
+    }
+
+    @Test
+    void bufferShorterThanArrayIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> MergeSort.bufferedSort(new int[10], new int[9]));
+        assertThrows(IllegalArgumentException.class, () -> MergeSort.bufferedIterativeSort(new int[10], new int[9]));
+    }
+}
@@ -0,0 +1,100 @@
+package algorithms.sorting;
+
+import algorithms.sorting.TestInputs.Shape;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KWayMergerTest {
+    /*
+        Every input of TestInputs is cut into K pieces of random lengths (some of them empty), the pieces are sorted and
+        merged, and the result is compared with the input sorted by Arrays.sort.
+    */
+    private static final int maxSize = 131075;
+
+    @Test
+    void mergesSortedPieces() {
+        for (Shape shape : Shape.values()) {
+            for (int size : TestInputs.sizes) {
+                if (size > maxSize) {
+                    break;
+                }
+                for (int k : new int[]{1, 2, 3, 8, 100}) {
+                    int[][] inputs = pieces(TestInputs.input(shape, size), k, size);
+                    for (int[] input : inputs) {
+                        Arrays.sort(input);
+                    }
+                    int[] expected = TestInputs.expected(shape, size);
+                    String message = shape + " N = " + size + " K = " + k;
+
+                    assertArrayEquals(expected, KWayMerger.merge(inputs), "merge " + message);
+                    assertArrayEquals(expected, KWayMerger.parallelMerge(inputs), "parallelMerge " + message);
+
+                    int[] streamed = new int[size];
+                    int[] position = new int[1];
+                    KWayMerger.merge(inputs, value -> streamed[position[0]++] = value);
+                    assertArrayEquals(expected, streamed, "merge to consumer " + message);
+                }
+            }
+        }
+    }
+
+    @Test
+    void mergesSlices() {
+        int[][] inputs = {{9, 1, 2, 3, 9}, {9, 9, 0, 2, 4}, {}};
+        int[] from = {1, 2, 0};
+        int[] to = {4, 5, 0};
+
+        int[] destination = new int[8];
+        KWayMerger.merge(inputs, from, to, destination, 1);
+        assertArrayEquals(new int[]{0, 0, 1, 2, 2, 3, 4, 0}, destination);
+
+        destination = new int[8];
+        KWayMerger.parallelMerge(inputs, from, to, destination, 1);
+        assertArrayEquals(new int[]{0, 0, 1, 2, 2, 3, 4, 0}, destination);
+
+        int[] streamed = new int[6];
+        int[] position = new int[1];
+        KWayMerger.merge(inputs, from, to, value -> streamed[position[0]++] = value);
+        assertArrayEquals(new int[]{0, 1, 2, 2, 3, 4}, streamed);
+    }
+
+    @Test
+    void invalidSlicesAreRejected() {
+        int[][] inputs = {{9, 1, 2, 3, 9}, {9, 9, 0, 2, 4}, {}};
+        int[] destination = new int[8];
+
+        // A slice past the end, more elements than the destination holds, a reversed slice, missing bounds
+        assertThrows(IllegalArgumentException.class,
+                () -> KWayMerger.merge(inputs, new int[]{0, 0, 0}, new int[]{6, 0, 0}, destination, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> KWayMerger.merge(inputs, new int[]{0, 0, 0}, new int[]{5, 5, 0}, destination, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> KWayMerger.merge(inputs, new int[]{3, 0, 0}, new int[]{2, 0, 0}, destination, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> KWayMerger.merge(inputs, new int[]{0, 0}, new int[]{1, 1}, destination, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> KWayMerger.parallelMerge(inputs, new int[]{0, 0, 0}, new int[]{5, 5, 0}, destination, 0));
+    }
+
+    // Cuts the array into k consecutive pieces of random lengths (some of them may be empty)
+    private static int[][] pieces(int[] array, int k, long seed) {
+        Random random = new Random(seed);
+        int[] offsets = new int[k + 1];
+        for (int i = 1; i < k; ++i) {
+            offsets[i] = random.nextInt(array.length + 1);
+        }
+        offsets[k] = array.length;
+        Arrays.sort(offsets);
+
+        int[][] pieces = new int[k][];
+        for (int i = 0; i < k; ++i) {
+            pieces[i] = Arrays.copyOfRange(array, offsets[i], offsets[i + 1]);
+        }
+        return pieces;
+    }
+}
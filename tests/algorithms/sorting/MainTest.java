@@ -0,0 +1,162 @@
+package algorithms.sorting;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MainTest {
+    /*
+        The command line, the text and binary file formats and the sort of files with the three kinds of algorithms
+        (arrays, mapped files, external).
+    */
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void parsesOptions() {
+        Main.Options options = Main.parse(new String[] {"in"});
+        assertEquals("auto", options.algorithm);
+        assertFalse(options.text);
+        assertEquals(Path.of("in"), options.input);
+        assertNull(options.output);
+
+        options = Main.parse(new String[] {"-a", "pdq", "-f", "text", "in", "out"});
+        assertEquals("pdq", options.algorithm);
+        assertTrue(options.text);
+        assertEquals(Path.of("in"), options.input);
+        assertEquals(Path.of("out"), options.output);
+
+        options = Main.parse(new String[] {"in", "--format", "binary", "--algorithm", "offheap-merge"});
+        assertEquals("offheap-merge", options.algorithm);
+        assertFalse(options.text);
+
+        assertNull(Main.parse(new String[] {"--list"}));
+        assertNull(Main.parse(new String[] {"in", "--help"}));
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        String[][] invalid = {
+                {},
+                {"-a", "pdq"},
+                {"in", "-a"},
+                {"in", "-x"},
+                {"in", "-f", "csv"},
+                {"in", "-a", "bogo"},
+                {"in", "out", "more"},
+                {"in", "-f", "text", "-a", "offheap-intro"},
+                {"in", "-f", "text", "-a", "external"}
+        };
+        for (String[] args : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> Main.parse(args), String.join(" ", args));
+        }
+    }
+
+    @Test
+    void parsesText() throws IOException {
+        assertArrayEquals(new int[0], readText(""));
+        assertArrayEquals(new int[0], readText(" ,\n\r\t"));
+        assertArrayEquals(new int[] {7}, readText("7"));
+        assertArrayEquals(new int[] {Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 0, 12, -3},
+                readText("  -2147483648,2147483647\r\n0\t-0 ,012\n-3"));
+    }
+
+    @Test
+    void textParseErrorsAreRejected() {
+        String[] invalid = {"--5", "-", "1 - 2", "5-", "1 -", "2147483648", "-2147483649", "99999999999", "12a", "1;2"};
+        for (String text : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> readText(text), text);
+        }
+    }
+
+    @Test
+    void textRoundTrip() throws IOException {
+        int[] array = random(5000);
+        array[0] = Integer.MIN_VALUE;
+        array[1] = Integer.MAX_VALUE;
+        array[2] = 0;
+        Path path = directory.resolve("ints.txt");
+
+        Main.writeText(path, array);
+        assertTrue(Files.readString(path, StandardCharsets.US_ASCII).startsWith("-2147483648\n2147483647\n0\n"));
+        assertArrayEquals(array, Main.readText(path));
+    }
+
+    @Test
+    void binaryRoundTrip() throws IOException {
+        for (int length : new int[] {0, 1, 1000, 300_001}) {
+            int[] array = random(length);
+            Path path = directory.resolve("ints-" + length);
+
+            Main.writeBinary(path, array);
+            assertEquals(4L * length, Files.size(path));
+            int[] written = new int[length];
+            ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(written);
+            assertArrayEquals(array, written);
+
+            assertArrayEquals(array, Main.readBinary(path));
+        }
+
+        // Shorter arrays truncate the file
+        Path path = directory.resolve("ints-1000");
+        Main.writeBinary(path, new int[] {1, 2});
+        assertArrayEquals(new int[] {1, 2}, Main.readBinary(path));
+
+        Path partial = directory.resolve("partial");
+        Files.write(partial, new byte[] {1, 2, 3, 4, 5});
+        assertThrows(IllegalArgumentException.class, () -> Main.readBinary(partial));
+    }
+
+    @Test
+    void sortsFiles() throws IOException {
+        int[] array = random(20_000);
+        int[] expected = array.clone();
+        Arrays.sort(expected);
+
+        for (String algorithm : new String[] {"auto", "pdq", "merge-parallel", "offheap-intro", "offheap-counting",
+                "external"}) {
+            Path input = directory.resolve(algorithm + ".in");
+            Path output = directory.resolve(algorithm + ".out");
+            Main.writeBinary(input, array);
+
+            Main.sort(algorithm, false, input, output);
+            assertArrayEquals(expected, Main.readBinary(output), algorithm);
+            assertArrayEquals(array, Main.readBinary(input), algorithm);
+
+            // Back to the input file
+            Main.sort(algorithm, false, input, input);
+            assertArrayEquals(expected, Main.readBinary(input), algorithm);
+        }
+
+        Path text = directory.resolve("ints.txt");
+        Main.writeText(text, array);
+        Main.sort("tim", true, text, text);
+        assertArrayEquals(expected, Main.readText(text));
+    }
+
+    private int[] readText(String text) throws IOException {
+        Path path = Files.createTempFile(directory, "ints", ".txt");
+        Files.writeString(path, text, StandardCharsets.US_ASCII);
+        return Main.readText(path);
+    }
+
+    private static int[] random(int length) {
+        return new Random(length).ints(length).toArray();
+    }
+}
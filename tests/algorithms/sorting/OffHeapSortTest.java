@@ -0,0 +1,134 @@
+package algorithms.sorting;
+
+import algorithms.sorting.TestInputs.Shape;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapSortTest {
+    /*
+        OffHeapSort on records in heap and direct ByteBuffers, with int and long keys, with and without payload. The
+        payload of every record is its input index, which shows that the records move as a whole, and that mergeSort
+        and countingSort are stable.
+    */
+    private static final int[] bufferSizes = {0, 1, 2, 9, 10, 11, 25, 1025, 8193};
+
+    @Test
+    void sortsLikeArraysSort() {
+        for (Shape shape : Shape.values()) {
+            for (int size : bufferSizes) {
+                int[] keys = TestInputs.input(shape, size);
+                for (boolean direct : new boolean[]{false, true}) {
+                    for (int keyBytes : new int[]{Integer.BYTES, Long.BYTES}) {
+                        // Key only, key and an int payload, key and payload and padding
+                        for (int stride : new int[]{keyBytes, keyBytes + Integer.BYTES, keyBytes + Integer.BYTES + 3}) {
+                            String message = shape + " N = " + size + (direct ? " direct" : " heap") + " key "
+                                    + keyBytes + " stride " + stride;
+                            check(keys, direct, keyBytes, stride, "introSort", false, message);
+                            check(keys, direct, keyBytes, stride, "mergeSort", true, message);
+                            check(keys, direct, keyBytes, stride, "countingSort", true, message);
+                            check(keys, direct, keyBytes, stride, "countingSort(no budget)", true, message);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void countingSortChecksTheCountArray() {
+        // The check that countingSort shares with CountingSort.boundedSort
+        assertTrue(CountingSort.countingFits(4000, 1000, 0, 1 << 20));
+        assertFalse(CountingSort.countingFits(4000, 1000, 0, 4000 * 4 - 1), "over the budget");
+        assertFalse(CountingSort.countingFits(1_000_000, 1000, 0, Long.MAX_VALUE), "range too big for N");
+        assertFalse(CountingSort.countingFits(1L << 32, Integer.MAX_VALUE, 0, Long.MAX_VALUE), "no int count array");
+        assertFalse(CountingSort.countingFits(Long.MIN_VALUE + 5, 1000, 0, Long.MAX_VALUE), "overflowed long range");
+    }
+
+    @Test
+    void invalidLayoutsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> OffHeapSort.introSort(ByteBuffer.allocate(12), 2, 4));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapSort.introSort(ByteBuffer.allocate(16), 8, 4));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapSort.mergeSort(ByteBuffer.allocate(10), 4, 4));
+    }
+
+    private static void check(int[] keys, boolean direct, int keyBytes, int stride, String algorithm, boolean stable,
+                              String message) {
+        int size = keys.length;
+        boolean payload = stride >= keyBytes + Integer.BYTES;
+        // Long keys use the whole range of long
+        long[] values = new long[size];
+        for (int i = 0; i < size; ++i) {
+            values[i] = keyBytes == Long.BYTES ? ((long) keys[i] << 31) ^ (i & 1) : keys[i];
+        }
+
+        // The records start at position 5 - the bytes before them must not be touched
+        int prefix = 5;
+        ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(prefix + size * stride) : ByteBuffer.allocate(prefix + size * stride);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < prefix; ++i) {
+            buffer.put(i, (byte) 0x5a);
+        }
+        for (int i = 0; i < size; ++i) {
+            int offset = prefix + i * stride;
+            if (keyBytes == Long.BYTES) {
+                buffer.putLong(offset, values[i]);
+            } else {
+                buffer.putInt(offset, (int) values[i]);
+            }
+            if (payload) {
+                buffer.putInt(offset + keyBytes, i);
+            }
+        }
+        buffer.position(prefix);
+
+        switch (algorithm) {
+            case "introSort":
+                OffHeapSort.introSort(buffer, keyBytes, stride);
+                break;
+            case "mergeSort":
+                OffHeapSort.mergeSort(buffer, keyBytes, stride);
+                break;
+            case "countingSort":
+                OffHeapSort.countingSort(buffer, keyBytes, stride);
+                break;
+            default:
+                // Falls back to mergeSort
+                OffHeapSort.countingSort(buffer, keyBytes, stride, 0);
+                break;
+        }
+
+        assertEquals(prefix, buffer.position(), algorithm + " position " + message);
+        assertEquals(prefix + size * stride, buffer.limit(), algorithm + " limit " + message);
+        for (int i = 0; i < prefix; ++i) {
+            assertEquals((byte) 0x5a, buffer.get(i), algorithm + " prefix " + message);
+        }
+
+        // Expected order: by key, and by input index for equal keys if the sort is stable
+        int[] order = IntStream.range(0, size).boxed()
+                .sorted(Comparator.comparingLong(i -> values[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        for (int i = 0; i < size; ++i) {
+            int offset = prefix + i * stride;
+            long key = keyBytes == Long.BYTES ? buffer.getLong(offset) : buffer.getInt(offset);
+            assertEquals(values[order[i]], key, algorithm + " key at " + i + " " + message);
+
+            if (payload) {
+                int index = buffer.getInt(offset + keyBytes);
+                assertEquals(key, values[index], algorithm + " payload moved with its key at " + i + " " + message);
+                if (stable) {
+                    assertEquals(order[i], index, algorithm + " stable at " + i + " " + message);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package algorithms.sorting;
+
+import algorithms.sorting.TestInputs.Shape;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrimitiveSortTest {
+    /*
+        The long[], double[] and narrow-type entry points against Arrays.sort. The long and double inputs are the int
+        shapes of TestInputs spread over the whole range of the type; the double inputs also get NaNs, -0.0 and the
+        infinities, which Arrays.sort orders as Double.compare does.
+    */
+    private static final int maxSize = 131075;
+
+    @Test
+    void longSorts() {
+        for (Shape shape : Shape.values()) {
+            for (int size : TestInputs.sizes) {
+                if (size > maxSize) {
+                    break;
+                }
+                long[] input = longs(TestInputs.input(shape, size));
+                long[] expected = input.clone();
+                Arrays.sort(expected);
+                String message = shape + " N = " + size;
+
+                long[] array = input.clone();
+                QuickSort.introSort(array);
+                assertArrayEquals(expected, array, "QuickSort.introSort " + message);
+
+                array = input.clone();
+                MergeSort.bufferedSort(array);
+                assertArrayEquals(expected, array, "MergeSort.bufferedSort " + message);
+
+                array = input.clone();
+                HeapSort.heapSort(array, 0, array.length - 1);
+                assertArrayEquals(expected, array, "HeapSort.heapSort " + message);
+            }
+        }
+    }
+
+    @Test
+    void doubleSorts() {
+        for (Shape shape : Shape.values()) {
+            for (int size : TestInputs.sizes) {
+                if (size > maxSize) {
+                    break;
+                }
+                double[] input = doubles(TestInputs.input(shape, size), size);
+                double[] expected = input.clone();
+                Arrays.sort(expected);
+                String message = shape + " N = " + size;
+
+                double[] array = input.clone();
+                QuickSort.introSort(array);
+                assertSameDoubles(expected, array, "QuickSort.introSort " + message);
+
+                array = input.clone();
+                MergeSort.bufferedSort(array);
+                assertSameDoubles(expected, array, "MergeSort.bufferedSort " + message);
+            }
+        }
+    }
+
+    @Test
+    void narrowTypeSorts() {
+        for (int size : TestInputs.sizes) {
+            if (size > maxSize) {
+                break;
+            }
+            Random random = new Random(size);
+
+            byte[] bytes = new byte[size];
+            random.nextBytes(bytes);
+            byte[] expectedBytes = bytes.clone();
+            Arrays.sort(expectedBytes);
+            CountingSort.sort(bytes);
+            assertArrayEquals(expectedBytes, bytes, "byte[] N = " + size);
+
+            short[] shorts = new short[size];
+            char[] chars = new char[size];
+            for (int i = 0; i < size; ++i) {
+                shorts[i] = (short) random.nextInt();
+                chars[i] = (char) random.nextInt();
+            }
+            short[] expectedShorts = shorts.clone();
+            Arrays.sort(expectedShorts);
+            CountingSort.sort(shorts);
+            assertArrayEquals(expectedShorts, shorts, "short[] N = " + size);
+
+            char[] expectedChars = chars.clone();
+            Arrays.sort(expectedChars);
+            CountingSort.sort(chars);
+            assertArrayEquals(expectedChars, chars, "char[] N = " + size);
+        }
+    }
+
+    // The int values times 2^31, so the long values use the whole range of long
+    private static long[] longs(int[] values) {
+        long[] array = new long[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            array[i] = ((long) values[i] << 31) ^ (i & 1);
+        }
+        return array;
+    }
+
+    private static double[] doubles(int[] values, int size) {
+        double[] special = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.longBitsToDouble(0x7ff8_0000_0000_0001L), Double.MIN_VALUE, -Double.MAX_VALUE};
+        Random random = new Random(size);
+
+        double[] array = new double[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            array[i] = random.nextInt(16) == 0 ? special[random.nextInt(special.length)] : values[i] / 3.0;
+        }
+        return array;
+    }
+
+    // NaNs with different bit patterns are all "equal", -0.0 and 0.0 are not
+    private static void assertSameDoubles(double[] expected, double[] actual, String message) {
+        assertEquals(expected.length, actual.length, message);
+        for (int i = 0; i < expected.length; ++i) {
+            assertEquals(0, Double.compare(expected[i], actual[i]), message + " at index " + i);
+        }
+    }
+}
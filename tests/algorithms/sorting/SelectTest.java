@@ -0,0 +1,107 @@
+package algorithms.sorting;
+
+import algorithms.sorting.TestInputs.Shape;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SelectTest {
+    /*
+        select, partialSort, topK and multiSelect of QuickSort against the array sorted by Arrays.sort, for the first,
+        last and a few middle ranks of every shape and size.
+    */
+    private static final int maxSize = 131075;
+
+    @Test
+    void selectPlacesTheRank() {
+        forEachInput((shape, size, expected) -> {
+            for (int k : ranks(size)) {
+                int[] array = TestInputs.input(shape, size);
+                assertEquals(expected[k], QuickSort.select(array, k), shape + " N = " + size + " k = " + k);
+
+                // Smaller or equal elements before k, bigger or equal elements after it
+                for (int i = 0; i < size; ++i) {
+                    assertTrue(i < k ? array[i] <= array[k] : array[i] >= array[k],
+                            shape + " N = " + size + " k = " + k + " at index " + i);
+                }
+            }
+        });
+    }
+
+    @Test
+    void partialSortSortsThePrefix() {
+        forEachInput((shape, size, expected) -> {
+            for (int k : ranks(size)) {
+                int[] array = TestInputs.input(shape, size);
+                QuickSort.partialSort(array, k);
+                assertArrayEquals(Arrays.copyOf(expected, k), Arrays.copyOf(array, k), shape + " N = " + size + " k = " + k);
+            }
+        });
+    }
+
+    @Test
+    void topKReturnsTheLargestDescending() {
+        forEachInput((shape, size, expected) -> {
+            for (int k : ranks(size)) {
+                int[] top = QuickSort.topK(TestInputs.input(shape, size), k);
+
+                int[] expectedTop = new int[k];
+                for (int i = 0; i < k; ++i) {
+                    expectedTop[i] = expected[size - 1 - i];
+                }
+                assertArrayEquals(expectedTop, top, shape + " N = " + size + " k = " + k);
+            }
+        });
+    }
+
+    @Test
+    void multiSelectReturnsEveryRank() {
+        forEachInput((shape, size, expected) -> {
+            if (size == 0) {
+                return;
+            }
+            // Unsorted, with a duplicate rank
+            int[] ranks = {size - 1, 0, size / 2, size / 4, size / 2, 3 * (size / 4)};
+            int[] values = QuickSort.multiSelect(TestInputs.input(shape, size), ranks);
+
+            for (int i = 0; i < ranks.length; ++i) {
+                assertEquals(expected[ranks[i]], values[i], shape + " N = " + size + " rank " + ranks[i]);
+            }
+        });
+    }
+
+    @Test
+    void invalidRanksAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> QuickSort.select(new int[3], 3));
+        assertThrows(IllegalArgumentException.class, () -> QuickSort.select(new int[3], -1));
+        assertThrows(IllegalArgumentException.class, () -> QuickSort.multiSelect(new int[3], new int[]{0, 5}));
+    }
+
+    private interface InputCheck {
+        void check(Shape shape, int size, int[] expected);
+    }
+
+    private static void forEachInput(InputCheck check) {
+        for (Shape shape : Shape.values()) {
+            for (int size : TestInputs.sizes) {
+                if (size > maxSize) {
+                    break;
+                }
+                check.check(shape, size, TestInputs.expected(shape, size));
+            }
+        }
+    }
+
+    // 0, 1, the middle, N - 2 and N - 1 (the valid ones, without duplicates)
+    private static int[] ranks(int size) {
+        return Arrays.stream(new int[]{0, 1, size / 2, size - 2, size - 1})
+                .filter(k -> k >= 0 && k < size)
+                .distinct()
+                .toArray();
+    }
+}
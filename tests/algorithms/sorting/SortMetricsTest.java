@@ -0,0 +1,186 @@
+package algorithms.sorting;
+
+import algorithms.sorting.TestInputs.Shape;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortMetricsTest {
+    /*
+        The counters against the numbers the class comments of the algorithms state. The surefire configuration switches
+        the instrumentation on.
+    */
+
+    @Test
+    void isEnabled() {
+        assertTrue(SortMetrics.isEnabled(), "start the tests with -Dalgorithms.sorting.metrics=true");
+    }
+
+    @Test
+    void selectionSortComparesEveryPairOnce() {
+        int[] array = TestInputs.input(Shape.RANDOM, 100);
+        SortMetrics metrics = SortMetrics.measure(() -> SelectionSort.sort(array));
+
+        assertEquals(100 * 99 / 2, metrics.comparisons(), metrics.toString());
+        assertTrue(metrics.swaps() <= 99, metrics.toString());
+        assertEquals(0, metrics.maxDepth(), metrics.toString());
+        assertEquals(0, metrics.scratchBytes(), metrics.toString());
+    }
+
+    @Test
+    void insertionSortIsLinearOnSortedInput() {
+        int[] array = TestInputs.input(Shape.SORTED, 100);
+        SortMetrics metrics = SortMetrics.measure(() -> InsertionSort.sort(array));
+
+        assertEquals(99, metrics.comparisons(), metrics.toString());
+        assertEquals(0, metrics.swaps(), metrics.toString());
+    }
+
+    @Test
+    void mergeSortRecursesLogNLevels() {
+        int[] array = TestInputs.input(Shape.RANDOM, 1024);
+        SortMetrics metrics = SortMetrics.measure(() -> MergeSort.recursiveSort(array));
+
+        // Ranges of 1024, 512, ..., 2 elements
+        assertEquals(10, metrics.maxDepth(), metrics.toString());
+        assertTrue(metrics.scratchBytes() > 0, metrics.toString());
+    }
+
+    @Test
+    void quickSortOnSortedInputIsUnbalanced() {
+        int[] sorted = TestInputs.input(Shape.SORTED, 2000);
+        SortMetrics quadratic = SortMetrics.measure(() -> QuickSort.sort(sorted));
+
+        // The rightmost pivot splits off one element per level
+        assertTrue(quadratic.maxDepth() >= 1000, quadratic.toString());
+        assertTrue(quadratic.unbalancedPartitions() * 10 >= quadratic.partitions() * 9, quadratic.toString());
+
+        int[] random = TestInputs.input(Shape.RANDOM, 2000);
+        SortMetrics balanced = SortMetrics.measure(() -> QuickSort.sort(random));
+
+        assertTrue(balanced.maxDepth() < 100, balanced.toString());
+        assertTrue(balanced.unbalancedPartitions() * 2 < balanced.partitions(), balanced.toString());
+    }
+
+    @Test
+    void pdqSortIsLinearOnSortedInput() {
+        int[] sorted = TestInputs.input(Shape.SORTED, 2000);
+        SortMetrics linear = SortMetrics.measure(() -> QuickSort.pdqSort(sorted));
+
+        assertTrue(linear.comparisons() < 3 * 2000, linear.toString());
+        assertEquals(1, linear.maxDepth(), linear.toString());
+
+        int[] random = TestInputs.input(Shape.RANDOM, 2000);
+        SortMetrics metrics = SortMetrics.measure(() -> QuickSort.pdqSort(random));
+
+        assertTrue(metrics.comparisons() > 2000 * 10, metrics.toString());
+        assertTrue(metrics.partitions() > 0, metrics.toString());
+        assertTrue(metrics.maxDepth() > 1 && metrics.maxDepth() < 40, metrics.toString());
+    }
+
+    @Test
+    void introSortCountsEveryPartition() {
+        // Big enough for the vectorized partition, if it is available
+        int[] array = TestInputs.input(Shape.RANDOM, 65537);
+        SortMetrics metrics = SortMetrics.measure(() -> QuickSort.introSort(array));
+
+        assertTrue(metrics.comparisons() > 65537L * 10, metrics.toString());
+        assertTrue(metrics.partitions() > 65537 / 16, metrics.toString());
+        assertTrue(metrics.unbalancedPartitions() * 2 < metrics.partitions(), metrics.toString());
+    }
+
+    @Test
+    void heapSortSwapsTheRootOutNMinusOneTimes() {
+        int[] array = TestInputs.input(Shape.RANDOM, 1024);
+        SortMetrics metrics = SortMetrics.measure(() -> HeapSort.sort(array));
+
+        assertEquals(1023, metrics.swaps(), metrics.toString());
+        assertTrue(metrics.comparisons() > 1024 * 10 && metrics.comparisons() <= 2 * 1024 * 10, metrics.toString());
+        assertEquals(0, metrics.scratchBytes(), metrics.toString());
+    }
+
+    @Test
+    void timSortIsLinearOnSortedInput() {
+        int[] sorted = TestInputs.input(Shape.SORTED, 2000);
+        SortMetrics linear = SortMetrics.measure(() -> TimSort.sort(sorted));
+
+        // One run, found with one comparison per pair of neighbours (also by the vectorized scan)
+        assertEquals(1999, linear.comparisons(), linear.toString());
+        assertEquals(0, linear.scratchBytes(), linear.toString());
+
+        int[] random = TestInputs.input(Shape.RANDOM, 2000);
+        SortMetrics metrics = SortMetrics.measure(() -> TimSort.sort(random));
+
+        assertTrue(metrics.comparisons() > 2000 * 8, metrics.toString());
+        assertTrue(metrics.scratchBytes() > 0, metrics.toString());
+        assertTrue(metrics.maxDepth() > 1, metrics.toString());
+    }
+
+    @Test
+    void radixSortDoesNotCompare() {
+        int[] array = TestInputs.input(Shape.RANDOM, 1000);
+        SortMetrics metrics = SortMetrics.measure(() -> RadixSort.sort(array));
+
+        // Four passes of 8 bits
+        assertEquals(0, metrics.comparisons(), metrics.toString());
+        assertEquals(4 * 1000, metrics.moves(), metrics.toString());
+        assertTrue(metrics.scratchBytes() >= 4 * 1000, metrics.toString());
+
+        int[] msd = TestInputs.input(Shape.RANDOM, 65537);
+        SortMetrics msdMetrics = SortMetrics.measure(() -> RadixSort.msdSort(msd));
+
+        assertTrue(msdMetrics.maxDepth() >= 2, msdMetrics.toString());
+    }
+
+    @Test
+    void depthIsNotLeakedByAnException() {
+        assertThrows(IllegalStateException.class, () -> SortMetrics.measure(() -> {
+            SortMetrics.enter();
+            SortMetrics.enter();
+            throw new IllegalStateException("sort failed");
+        }));
+
+        int[] array = TestInputs.input(Shape.RANDOM, 1024);
+        SortMetrics metrics = SortMetrics.measure(() -> MergeSort.recursiveSort(array));
+        assertEquals(10, metrics.maxDepth(), metrics.toString());
+    }
+
+    @Test
+    void depthIsNotLeakedByAStackOverflow() throws InterruptedException {
+        // The quadratic quicksort recurses once per element of sorted input, which a small stack does not hold
+        AtomicReference<Object> result = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            int[] sorted = TestInputs.input(Shape.SORTED, 65537);
+            try {
+                SortMetrics.measure(() -> QuickSort.sort(sorted));
+            } catch (StackOverflowError expected) {
+                // The exit() calls of all the levels were skipped
+            }
+
+            int[] array = TestInputs.input(Shape.RANDOM, 1024);
+            result.set(SortMetrics.measure(() -> MergeSort.recursiveSort(array)));
+        }, "small stack", 1 << 18);
+        thread.setUncaughtExceptionHandler((t, e) -> result.set(e));
+        thread.start();
+        thread.join();
+
+        assertTrue(result.get() instanceof SortMetrics, String.valueOf(result.get()));
+        SortMetrics metrics = (SortMetrics) result.get();
+        assertEquals(10, metrics.maxDepth(), metrics.toString());
+    }
+
+    @Test
+    void onlyTheMeasuredSortIsCounted() {
+        SelectionSort.sort(TestInputs.input(Shape.RANDOM, 100));
+        SortMetrics metrics = SortMetrics.measure(() -> {
+        });
+
+        assertEquals(0, metrics.comparisons(), metrics.toString());
+        assertEquals(0, metrics.swaps(), metrics.toString());
+        assertEquals(0, metrics.maxDepth(), metrics.toString());
+    }
+}
@@ -0,0 +1,116 @@
+package algorithms.sorting;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortTuningTest {
+    /*
+        Where the cutoffs come from. The surefire configuration overrides parallelThreshold and points the profile path
+        to a file that does not exist, so the other cutoffs keep their defaults. The profile tests write their own files.
+    */
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void systemPropertiesOverrideTheProfile() {
+        assertEquals(Integer.getInteger("algorithms.sorting.parallelThreshold"), SortTuning.parallelThreshold());
+
+        Properties profile = profile(SortTuning.machine());
+        profile.setProperty("parallelThreshold", "123");
+        assertEquals(SortTuning.parallelThreshold(), SortTuning.value(profile, "parallelThreshold", 99));
+    }
+
+    @Test
+    void defaultsWithoutProfile() {
+        assertNull(SortTuning.loadProfile(SortTuning.profilePath()));
+        assertEquals(10, SortTuning.insertionThreshold());
+        assertEquals(4, SortTuning.countingRangePerElement());
+    }
+
+    @Test
+    void profileOfThisMachineIsLoaded() throws IOException {
+        Path path = directory.resolve("nested").resolve("tuning.properties");
+        Properties saved = profile(SortTuning.machine());
+        saved.setProperty("insertionThreshold", "17");
+        SortTuning.saveProfile(saved, path);
+
+        Properties loaded = SortTuning.loadProfile(path);
+        assertNotNull(loaded);
+        assertEquals(17, SortTuning.value(loaded, "insertionThreshold", 10));
+        // Keys missing from the profile keep their defaults
+        assertEquals(4, SortTuning.value(loaded, "countingRangePerElement", 4));
+    }
+
+    @Test
+    void profileOfAnotherMachineIsIgnored() throws IOException {
+        Path path = directory.resolve("tuning.properties");
+        SortTuning.saveProfile(profile("sparc, 512 cores, " + SortTuning.machine()), path);
+
+        assertNull(SortTuning.loadProfile(path));
+    }
+
+    @Test
+    void brokenProfilesAreIgnored() throws IOException {
+        Path path = directory.resolve("tuning.properties");
+        assertNull(SortTuning.loadProfile(path), "missing file");
+
+        Files.writeString(path, "machine=" + SortTuning.machine() + "\ninsertionThreshold=\\u12", StandardCharsets.ISO_8859_1);
+        assertNull(SortTuning.loadProfile(path), "malformed escape");
+
+        Properties profile = profile(SortTuning.machine());
+        profile.setProperty("insertionThreshold", "ten");
+        profile.setProperty("countingRangePerElement", "-3");
+        assertEquals(10, SortTuning.value(profile, "insertionThreshold", 10));
+        assertEquals(4, SortTuning.value(profile, "countingRangePerElement", 4));
+    }
+
+    @Test
+    void invalidSystemPropertiesAreIgnored() {
+        Properties profile = profile(SortTuning.machine());
+        profile.setProperty("testThreshold", "7");
+
+        for (String override : new String[]{"ten", "0", "-5", ""}) {
+            System.setProperty("algorithms.sorting.testThreshold", override);
+            try {
+                assertEquals(7, SortTuning.value(profile, "testThreshold", 5), override);
+                assertEquals(5, SortTuning.value(new Properties(), "testThreshold", 5), override);
+            } finally {
+                System.clearProperty("algorithms.sorting.testThreshold");
+            }
+        }
+    }
+
+    @Test
+    void calibrationJvmGetsTheJvmOptions() {
+        Path path = directory.resolve("tuning.properties");
+        List<String> command = SortTuning.calibrationCommand(path, List.of("--add-modules=jdk.incubator.vector",
+                "-Djava.util.concurrent.ForkJoinPool.common.parallelism=4", "-Dalgorithms.sorting.calibrate=true",
+                "-agentlib:jdwp=transport=dt_socket,server=y,address=5005",
+                "-Dalgorithms.sorting.parallelThreshold=4096", "-Xmx2g"));
+
+        assertEquals(List.of("--add-modules=jdk.incubator.vector",
+                "-Djava.util.concurrent.ForkJoinPool.common.parallelism=4",
+                "-Dalgorithms.sorting.parallelThreshold=4096", "-Xmx2g", "-cp", System.getProperty("java.class.path"), SortTuning.class.getName(), path.toString()),
+                command.subList(1, command.size()));
+        assertTrue(command.get(0).startsWith(System.getProperty("java.home")), command.get(0));
+    }
+
+    private static Properties profile(String machine) {
+        Properties profile = new Properties();
+        profile.setProperty("machine", machine);
+        return profile;
+    }
+}
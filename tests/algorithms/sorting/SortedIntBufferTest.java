@@ -0,0 +1,195 @@
+package algorithms.sorting;
+
+import algorithms.sorting.TestInputs.Shape;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortedIntBufferTest {
+    /*
+        SortedIntBuffer against the input sorted by Arrays.sort. Every input of TestInputs is appended as a mix of single
+        values and chunks of random lengths, and the queries are compared with binary searches in the sorted input.
+    */
+    private static final int maxSize = 131075;
+    // SortedIntBuffer.pendingCapacity
+    private static final int pendingCapacity = 256;
+
+    @Test
+    void queriesMatchSortedReference() {
+        for (Shape shape : Shape.values()) {
+            for (int size : TestInputs.sizes) {
+                if (size > maxSize) {
+                    break;
+                }
+                int[] input = TestInputs.input(shape, size);
+                int[] expected = TestInputs.expected(shape, size);
+                String message = shape + " N = " + size;
+
+                SortedIntBuffer buffer = new SortedIntBuffer();
+                Random random = new Random(size);
+                for (int from = 0; from < size; ) {
+                    int to = Math.min(size, from + random.nextInt(600));
+                    if (random.nextBoolean()) {
+                        for (int i = from; i < to; ++i) {
+                            buffer.add(input[i]);
+                        }
+                    } else {
+                        buffer.addAll(input, from, to);
+                    }
+                    from = to;
+                }
+                assertEquals(size, buffer.size(), message);
+                assertEquals(size == 0, buffer.isEmpty(), message);
+
+                assertArrayEquals(expected, iterate(buffer.iterator(), size), "iterator " + message);
+
+                if (size > 0) {
+                    int low = expected[size / 4];
+                    int high = expected[3 * size / 4];
+                    int first = lowerBound(expected, low);
+                    int end = lowerBound(expected, high + 1L);
+
+                    assertEquals(first, buffer.rank(low), "rank " + message);
+                    assertEquals(0, buffer.rank(Integer.MIN_VALUE), "rank of MIN_VALUE " + message);
+                    assertEquals(lowerBound(expected, Integer.MAX_VALUE), buffer.rank(Integer.MAX_VALUE),
+                            "rank of MAX_VALUE " + message);
+                    assertEquals(end - first, buffer.countRange(low, high), "countRange " + message);
+                    if (low < high) {
+                        assertEquals(0, buffer.countRange(high, low), "countRange with low > high " + message);
+                    }
+                    assertArrayEquals(Arrays.copyOfRange(expected, first, end), buffer.range(low, high),
+                            "range " + message);
+                    assertArrayEquals(expected, buffer.range(Integer.MIN_VALUE, Integer.MAX_VALUE),
+                            "full range " + message);
+                    for (int k : new int[]{0, size / 2, size - 1}) {
+                        assertEquals(expected[k], buffer.select(k), "select " + k + " " + message);
+                    }
+                }
+
+                assertArrayEquals(expected, buffer.toArray(), "toArray " + message);
+                assertEquals(Math.min(1, size), buffer.runCount(), "runCount after compact " + message);
+            }
+        }
+    }
+
+    @Test
+    void addAllBelowAndAbovePendingCapacity() {
+        // Chunks that fit into the pending values, that just fit, that just do not fit, and bigger ones - with the
+        // pending buffer empty and partly filled
+        int[] chunkSizes = {0, 1, pendingCapacity - 11, pendingCapacity - 10, pendingCapacity - 1, pendingCapacity,
+                pendingCapacity + 1, 3 * pendingCapacity};
+        int[] input = TestInputs.input(Shape.RANDOM, 4097);
+
+        for (int singles : new int[]{0, 10}) {
+            for (int chunkSize : chunkSizes) {
+                SortedIntBuffer buffer = new SortedIntBuffer();
+                int count = 0;
+                for (int round = 0; round < 3; ++round) {
+                    for (int i = 0; i < singles; ++i) {
+                        buffer.add(input[count++]);
+                    }
+                    // A slice in the middle of the array
+                    buffer.addAll(input, count, count + chunkSize);
+                    count += chunkSize;
+
+                    int[] expected = Arrays.copyOf(input, count);
+                    Arrays.sort(expected);
+                    String message = singles + " singles, chunks of " + chunkSize + ", round " + round;
+                    assertEquals(count, buffer.size(), message);
+                    assertEquals(count == 0 ? 0 : lowerBound(expected, expected[count / 2]),
+                            count == 0 ? 0 : buffer.rank(expected[count / 2]), message);
+                    assertArrayEquals(expected, iterate(buffer.iterator(), count), message);
+                }
+                assertArrayEquals(Arrays.stream(input, 0, count).sorted().toArray(), buffer.toArray());
+            }
+        }
+    }
+
+    @Test
+    void iteratorIsASnapshot() {
+        int[] input = TestInputs.input(Shape.RANDOM, 8193);
+        SortedIntBuffer buffer = new SortedIntBuffer();
+        buffer.addAll(input, 0, 4000);
+        for (int i = 4000; i < 4100; ++i) {
+            buffer.add(input[i]);
+        }
+
+        PrimitiveIterator.OfInt iterator = buffer.iterator();
+        int[] expected = Arrays.copyOf(input, 4100);
+        Arrays.sort(expected);
+        int[] firstHalf = new int[2050];
+        for (int i = 0; i < firstHalf.length; ++i) {
+            firstHalf[i] = iterator.nextInt();
+        }
+
+        // Appends that create and merge runs, and a compaction, while the iterator is half way through
+        buffer.add(Integer.MIN_VALUE);
+        buffer.addAll(input, 4100, 8193);
+        buffer.compact();
+
+        int[] secondHalf = iterate(iterator, 2050);
+        assertArrayEquals(Arrays.copyOf(expected, 2050), firstHalf);
+        assertArrayEquals(Arrays.copyOfRange(expected, 2050, 4100), secondHalf);
+        assertEquals(8194, buffer.size());
+    }
+
+    @Test
+    void emptyBuffer() {
+        SortedIntBuffer buffer = new SortedIntBuffer();
+
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.rank(0));
+        assertEquals(0, buffer.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertArrayEquals(new int[0], buffer.range(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertArrayEquals(new int[0], buffer.toArray());
+        assertFalse(buffer.iterator().hasNext());
+        assertThrows(NoSuchElementException.class, () -> buffer.iterator().nextInt());
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        SortedIntBuffer buffer = new SortedIntBuffer();
+        buffer.addAll(new int[]{3, 1, 2});
+
+        assertThrows(IllegalArgumentException.class, () -> buffer.addAll(new int[5], 3, 2));
+        assertThrows(IllegalArgumentException.class, () -> buffer.addAll(new int[5], -1, 2));
+        assertThrows(IllegalArgumentException.class, () -> buffer.addAll(new int[5], 0, 6));
+        assertThrows(IllegalArgumentException.class, () -> buffer.select(3));
+        assertThrows(IllegalArgumentException.class, () -> buffer.select(-1));
+        assertEquals(3, buffer.size());
+    }
+
+    // The next count values of the iterator, which must end there
+    private static int[] iterate(PrimitiveIterator.OfInt iterator, int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; ++i) {
+            values[i] = iterator.nextInt();
+        }
+        assertFalse(iterator.hasNext());
+        return values;
+    }
+
+    // Index of the first element >= value
+    private static int lowerBound(int[] array, long value) {
+        int from = 0;
+        int to = array.length;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (array[mid] < value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+}
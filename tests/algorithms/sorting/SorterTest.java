@@ -0,0 +1,109 @@
+package algorithms.sorting;
+
+import algorithms.sorting.Sorter.Algorithm;
+import algorithms.sorting.Sorter.Decision;
+import algorithms.sorting.TestInputs.Shape;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SorterTest {
+    /*
+        The decision rules of Sorter, one input per rule. The sequential rules are checked on 2100 elements, below the
+        parallel cutoff; the parallel ones above 2^20 (the surefire configuration gives the common pool several workers).
+        IntSortTest checks that Sorter.sort sorts every shape.
+    */
+    private static final int sequentialSize = 2100;
+    private static final int parallelSize = (1 << 20) + 3;
+
+    @Test
+    void tinyArraysAreNotSorted() {
+        assertEquals(Algorithm.NONE, Sorter.decide(new int[0]).algorithm());
+        assertEquals(Algorithm.NONE, Sorter.decide(new int[]{5}).algorithm());
+    }
+
+    @Test
+    void smallArraysUseInsertionSort() {
+        assertDecision(Algorithm.INSERTION_SORT, Shape.RANDOM, 2);
+        assertDecision(Algorithm.INSERTION_SORT, Shape.RANDOM, 32);
+        assertDecision(Algorithm.PDQ_SORT, Shape.RANDOM, 33);
+    }
+
+    @Test
+    void presortedArraysUseTimSort() {
+        assertDecision(Algorithm.TIM_SORT, Shape.SORTED, sequentialSize);
+        assertDecision(Algorithm.TIM_SORT, Shape.REVERSED, sequentialSize);
+        assertDecision(Algorithm.TIM_SORT, Shape.ALL_EQUAL, sequentialSize);
+        // One descending pair per run of 100 elements, or of 500 elements on average
+        assertDecision(Algorithm.TIM_SORT, Shape.SAWTOOTH, parallelSize);
+        assertDecision(Algorithm.TIM_SORT, Shape.RANDOM_RUNS, sequentialSize);
+    }
+
+    @Test
+    void narrowRangeUsesCountingSort() {
+        assertDecision(Algorithm.COUNTING_SORT, Shape.SMALL_RANGE, sequentialSize);
+        assertDecision(Algorithm.PARALLEL_COUNTING_SORT, Shape.SMALL_RANGE, parallelSize);
+    }
+
+    @Test
+    void repeatedValuesInRandomOrderUseThreeWayQuickSort() {
+        assertDecision(Algorithm.THREE_WAY_QUICK_SORT, Shape.FEW_DISTINCT, sequentialSize);
+        assertDecision(Algorithm.THREE_WAY_QUICK_SORT, Shape.EXTREMES, sequentialSize);
+    }
+
+    @Test
+    void otherArraysUsePdqSortOrParallelQuickSort() {
+        assertDecision(Algorithm.PDQ_SORT, Shape.RANDOM, sequentialSize);
+        assertDecision(Algorithm.PARALLEL_QUICK_SORT, Shape.RANDOM, parallelSize);
+    }
+
+    @Test
+    void sortReturnsAndRemembersTheDecision() {
+        int[] array = TestInputs.input(Shape.FEW_DISTINCT, sequentialSize);
+        Decision decided = Sorter.decide(array);
+        assertArrayEquals(TestInputs.input(Shape.FEW_DISTINCT, sequentialSize), array, "decide must not sort");
+
+        Decision decision = Sorter.sort(array);
+        assertEquals(decided.algorithm(), decision.algorithm());
+        assertEquals(decided.reason(), decision.reason());
+        assertSame(decision, Sorter.lastDecision());
+        assertArrayEquals(TestInputs.expected(Shape.FEW_DISTINCT, sequentialSize), array);
+    }
+
+    @Test
+    void reasonsNameTheRuleAndItsNumbers() {
+        assertEquals("fewer than 2 elements", Sorter.decide(new int[0]).reason());
+        assertEquals("small array (N = 32 <= 32)", Sorter.decide(new int[32]).reason());
+
+        Decision sorted = Sorter.decide(TestInputs.input(Shape.SORTED, sequentialSize));
+        assertEquals("nearly sorted (0 of " + sorted.sampleSize() + " sampled pairs descending)", sorted.reason());
+        assertEquals("TIM_SORT (" + sorted.reason() + ")", sorted.toString());
+
+        Decision reversed = Sorter.decide(TestInputs.input(Shape.REVERSED, sequentialSize));
+        assertEquals("nearly reverse sorted (" + reversed.sampleSize() + " of " + reversed.sampleSize()
+                + " sampled pairs descending)", reversed.reason());
+
+        Decision counting = Sorter.decide(TestInputs.input(Shape.SMALL_RANGE, parallelSize));
+        assertEquals("estimated value range " + counting.estimatedRange() + " <= " + SortTuning.countingRangePerElement()
+                + " * N, N >= " + SortTuning.parallelThreshold(), counting.reason());
+
+        Decision parallel = Sorter.decide(TestInputs.input(Shape.RANDOM, parallelSize));
+        assertEquals("large array (N = " + parallelSize + " >= " + SortTuning.parallelThreshold() + ") and "
+                + ForkJoinPool.getCommonPoolParallelism() + " workers", parallel.reason());
+
+        Decision threeWay = Sorter.decide(TestInputs.input(Shape.EXTREMES, sequentialSize));
+        assertEquals("many repeated values (4 distinct of " + threeWay.sampleSize() + " sampled) in random order",
+                threeWay.reason());
+
+        assertEquals("no exploitable structure found", Sorter.decide(TestInputs.input(Shape.RANDOM, 33)).reason());
+    }
+
+    private static void assertDecision(Algorithm expected, Shape shape, int size) {
+        Decision decision = Sorter.decide(TestInputs.input(shape, size));
+        assertEquals(expected, decision.algorithm(), shape + " N = " + size + ": " + decision);
+    }
+}
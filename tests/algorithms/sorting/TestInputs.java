@@ -0,0 +1,100 @@
+package algorithms.sorting;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+final class TestInputs {
+    /*
+        Inputs of the correctness tests
+
+        Every sort is compared with Arrays.sort on the shapes below, at sizes just below, at and just above the cutoffs
+        of the algorithms (see the sizes array). The inputs are generated once with a fixed seed and shared by all
+        tests; every test sorts its own copy.
+
+        The range of SORTED, REVERSED, ALL_EQUAL, SMALL_RANGE and SAWTOOTH is at most N, so they are also valid inputs of
+        the plain counting sorts.
+    */
+    enum Shape {
+        RANDOM(false),          // the full int range
+        SORTED(true),
+        REVERSED(true),
+        ALL_EQUAL(true),
+        FEW_DISTINCT(false),    // 8 values spread over the full range, including Integer.MIN_VALUE and MAX_VALUE
+        SMALL_RANGE(true),      // values in [-N/4, N/4]
+        EXTREMES(false),        // only Integer.MIN_VALUE, -1, 0 and Integer.MAX_VALUE
+        SAWTOOTH(true),         // ascending runs of 100 elements
+        RANDOM_RUNS(false);     // sorted runs of random values from the full range, of random lengths
+
+        final boolean boundedRange;
+
+        Shape(boolean boundedRange) {
+            this.boundedRange = boundedRange;
+        }
+    }
+
+    // Around the cutoffs: 10 (insertion), 24 and 128 (pdqsort), 32 (TimSort runs, Sorter), 64 (MSD radix), 512 (buffer
+    // of the in-place merge sort), the powers of two up to 2^17 (passes of the iterative merge sort), 4096 (parallel
+    // cutoff of the tests, see SortTuning), 8192 (parallel quicksort and merge sort tasks), 16384 (parallel merge),
+    // 65536 (chunks of the parallel counting sort) and 2^20 (parallel partition, only for the parallel sorts)
+    static final int[] sizes = {0, 1, 2, 3, 5, 9, 10, 11, 12, 23, 24, 25, 31, 32, 33, 63, 64, 65, 100, 129, 257, 511,
+            512, 513, 1023, 1024, 1025, 2100, 4095, 4096, 4097, 8191, 8192, 8193, 8194, 16385, 65537, 131075,
+            (1 << 20) + 3};
+
+    private static final Map<String, int[]> inputs = new HashMap<>();
+    private static final Map<String, int[]> sorted = new HashMap<>();
+
+    private TestInputs() {
+    }
+
+    // A copy of the input of the given shape and size
+    static synchronized int[] input(Shape shape, int size) {
+        return inputs.computeIfAbsent(shape + "/" + size, key -> generate(shape, size)).clone();
+    }
+
+    // The input sorted by Arrays.sort (shared - do not modify)
+    static synchronized int[] expected(Shape shape, int size) {
+        return sorted.computeIfAbsent(shape + "/" + size, key -> {
+            int[] array = input(shape, size);
+            Arrays.sort(array);
+            return array;
+        });
+    }
+
+    static int[] generate(Shape shape, int size) {
+        Random random = new Random(31L * size + shape.ordinal());
+
+        switch (shape) {
+            case RANDOM:
+                return random.ints(size).toArray();
+            case SORTED:
+                return IntStream.range(0, size).map(i -> i - size / 2).toArray();
+            case REVERSED:
+                return IntStream.range(0, size).map(i -> size / 2 - i).toArray();
+            case ALL_EQUAL:
+                return IntStream.range(0, size).map(i -> 42).toArray();
+            case FEW_DISTINCT:
+                int[] values = {Integer.MIN_VALUE, -1_500_000_000, -7, 0, 1, 900_000_000, 2_000_000_000, Integer.MAX_VALUE};
+                return random.ints(size, 0, values.length).map(i -> values[i]).toArray();
+            case SMALL_RANGE:
+                return random.ints(size, -size / 4, size / 4 + 1).toArray();
+            case EXTREMES:
+                int[] extremes = {Integer.MIN_VALUE, -1, 0, Integer.MAX_VALUE};
+                return random.ints(size, 0, extremes.length).map(i -> extremes[i]).toArray();
+            case SAWTOOTH:
+                return IntStream.range(0, size).map(i -> i % 100).toArray();
+            case RANDOM_RUNS:
+                int[] array = random.ints(size).toArray();
+                for (int from = 0; from < size; ) {
+                    int to = Math.min(size, from + 1 + random.nextInt(1000));
+                    Arrays.sort(array, from, to);
+                    from = to;
+                }
+                return array;
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+    }
+}
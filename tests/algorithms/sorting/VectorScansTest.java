@@ -0,0 +1,110 @@
+package algorithms.sorting;
+
+import algorithms.sorting.TestInputs.Shape;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VectorScansTest {
+    /*
+        The SIMD scans against the scalar code they replace, on every shape and on ranges that start and end inside the
+        array (so the vector loops, the tails and the ranges shorter than one vector all run). The tests call VectorScans
+        directly, so they cover it also on a CPU where VectorSupport keeps it switched off - there the Vector API emulates
+        the instructions.
+    */
+    private static final int[] sizes = {1, 2, 7, 8, 9, 15, 16, 17, 33, 100, 1023, 1024, 1025, 1100, 4097, 65537};
+
+    @Test
+    void enabledWhenAccelerated() {
+        // The surefire configuration adds the module and does not switch the vector code off
+        assertEquals(VectorScans.isAccelerated(), VectorSupport.enabled);
+    }
+
+    @Test
+    void minMaxMatchesScalarScan() {
+        for (Shape shape : Shape.values()) {
+            for (int size : sizes) {
+                int[] array = TestInputs.input(shape, size);
+                for (int[] range : ranges(size)) {
+                    int from = range[0];
+                    int to = range[1];
+                    long min = array[from];
+                    long max = array[from];
+                    for (int i = from; i < to; ++i) {
+                        min = Math.min(min, array[i]);
+                        max = Math.max(max, array[i]);
+                    }
+
+                    assertArrayEquals(new long[]{min, max}, VectorScans.minMax(array, from, to),
+                            shape + " N = " + size + " [" + from + ", " + to + ")");
+                }
+            }
+        }
+    }
+
+    @Test
+    void ascendingRunEndMatchesScalarScan() {
+        for (Shape shape : Shape.values()) {
+            for (int size : sizes) {
+                int[] array = TestInputs.input(shape, size);
+                for (int[] range : ranges(size)) {
+                    int from = range[0];
+                    int to = range[1];
+                    int end = from + 1;
+                    while (end < to && array[end] >= array[end - 1]) {
+                        ++end;
+                    }
+                    end = Math.min(end, to);
+
+                    assertEquals(end, VectorScans.ascendingRunEnd(array, from, to),
+                            shape + " N = " + size + " [" + from + ", " + to + ")");
+                }
+            }
+        }
+    }
+
+    @Test
+    void partitionMatchesScalarPartition() {
+        for (Shape shape : Shape.values()) {
+            for (int size : sizes) {
+                for (int[] range : ranges(size)) {
+                    int leftIndex = range[0];
+                    int rightIndex = range[1] - 1;
+                    String message = shape + " N = " + size + " [" + leftIndex + ", " + rightIndex + "]";
+
+                    int[] vector = TestInputs.input(shape, size);
+                    QuickSort.getPivotAsMedianOfThree(vector, leftIndex, rightIndex);
+                    int[] scalar = vector.clone();
+                    int pivot = vector[rightIndex];
+
+                    int partitionIndex = VectorScans.partition(vector, leftIndex, rightIndex);
+                    assertEquals(QuickSort.partition(scalar, leftIndex, rightIndex), partitionIndex, message);
+
+                    assertEquals(pivot, vector[partitionIndex], message);
+                    for (int i = leftIndex; i <= rightIndex; ++i) {
+                        assertTrue(i < partitionIndex ? vector[i] <= pivot : i == partitionIndex || vector[i] > pivot,
+                                message + " at index " + i);
+                    }
+                    // Same elements, and nothing outside the range moved
+                    assertArrayEquals(Arrays.copyOf(scalar, leftIndex), Arrays.copyOf(vector, leftIndex), message);
+                    assertArrayEquals(Arrays.copyOfRange(scalar, rightIndex + 1, size),
+                            Arrays.copyOfRange(vector, rightIndex + 1, size), message);
+                    Arrays.sort(scalar, leftIndex, rightIndex + 1);
+                    Arrays.sort(vector, leftIndex, rightIndex + 1);
+                    assertArrayEquals(scalar, vector, message);
+                }
+            }
+        }
+    }
+
+    // The whole array, and a range that starts and ends inside it
+    private static int[][] ranges(int size) {
+        int from = size / 3;
+        int to = size - size / 5;
+        return from < to ? new int[][]{{0, size}, {from, to}} : new int[][]{{0, size}};
+    }
+}